@@ -1,13 +1,11 @@
 package com.anosym.nyundo;
 
 import com.google.common.base.MoreObjects;
-import com.google.common.base.Predicate;
-import com.google.common.collect.Collections2;
 import com.google.common.collect.Lists;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.text.DateFormat;
 import java.text.SimpleDateFormat;
-import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Comparator;
@@ -24,24 +22,46 @@ import javax.xml.bind.annotation.XmlTransient;
 @XmlTransient
 public abstract class UIStringable {
 
-    @XmlTransient
-    private transient final Iterable<Field> fields;
+    private static final String CALENDAR_FORMAT = "yyyy-MM-dd HH:mm:ss";
+
+    private static final ThreadLocal<DateFormat> CALENDAR_DATE_FORMAT = new ThreadLocal<DateFormat>() {
+
+        @Override
+        protected DateFormat initialValue() {
+            return new SimpleDateFormat(CALENDAR_FORMAT);
+        }
+    };
+
+    /**
+     * The fields of every subclass, computed only once per class, the first time an instance is stringified.
+     */
+    private static final ClassValue<Field[]> FIELDS = new ClassValue<Field[]>() {
+
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            return getFields(type);
+        }
+    };
 
     protected UIStringable() {
-        this.fields = getfields();
     }
 
-    private void getFields(@Nonnull final List<Field> fields, @Nonnull Class<?> clazz) {
+    private static void getFields(@Nonnull final List<Field> fields, @Nonnull Class<?> clazz) {
         if (clazz.isAssignableFrom(UIStringable.class)) {
             return;
         }
-        fields.addAll(Arrays.asList(clazz.getDeclaredFields()));
+        for (Field field : clazz.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                fields.add(field);
+            }
+        }
         getFields(fields, clazz.getSuperclass());
     }
 
-    private Iterable<Field> getfields() {
+    @Nonnull
+    private static Field[] getFields(@Nonnull Class<?> clazz) {
         List<Field> objFields = Lists.newArrayList();
-        getFields(objFields, getClass());
+        getFields(objFields, clazz);
         Collections.sort(objFields, new Comparator<Field>() {
 
             @Override
@@ -49,27 +69,22 @@ public abstract class UIStringable {
                 return o1.getName().compareTo(o2.getName());
             }
         });
-        return Collections2.filter(objFields, new Predicate<Field>() {
-
-            @Override
-            public boolean apply(Field input) {
-                final int modifiers = input.getModifiers();
-                return !Modifier.isStatic(modifiers);
-            }
-        });
+        for (Field f : objFields) {
+            f.setAccessible(true);
+        }
+        return objFields.toArray(new Field[objFields.size()]);
     }
 
     @Override
     public final String toString() {
         MoreObjects.ToStringHelper toStringHelper = MoreObjects.toStringHelper(getClass());
-        for (Field f : this.fields) {
+        for (Field f : FIELDS.get(getClass())) {
             try {
-                f.setAccessible(true);
                 Class<?> type = f.getType();
                 //special handling for calendars.
                 Object value = f.get(this);
                 if (value != null && Calendar.class.isAssignableFrom(type)) {
-                    value = convertFrom((Calendar) value, "yyyy-MM-dd HH:mm:ss");
+                    value = convertFrom((Calendar) value, CALENDAR_FORMAT);
                 }
                 toStringHelper.add(f.getName(), value);
             } catch (IllegalArgumentException | IllegalAccessException ex) {
@@ -81,7 +96,7 @@ public abstract class UIStringable {
 
     public String convertFrom(Calendar value, String format) {
         try {
-            SimpleDateFormat dateFormat = new SimpleDateFormat(format);
+            DateFormat dateFormat = CALENDAR_FORMAT.equals(format) ? CALENDAR_DATE_FORMAT.get() : new SimpleDateFormat(format);
             return dateFormat.format(value.getTime());
         } catch (Exception ex) {
             Logger.getLogger(getClass().getName()).log(Level.SEVERE, null, ex);
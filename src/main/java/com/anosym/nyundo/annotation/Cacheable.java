@@ -0,0 +1,30 @@
+package com.anosym.nyundo.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Designates a {@link Component} whose rendered markup is cached.
+ *
+ * The markup is cached by component class, attribute values and inherited namespace prefix, hence the markup of the
+ * whole component subtree must be fully determined by the attributes of the component. Children, or state not exposed
+ * as attribute, are not taken into account: a component instance with children is therefore not cached, unless its
+ * class opts in through {@link #children()}.
+ *
+ * Not inherited, every cacheable component class must be annotated explicitly.
+ *
+ * @author mochieng
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Cacheable {
+
+    /**
+     * Whether instances with children are cached as well, their children being determined by the component attributes.
+     *
+     * @return
+     */
+    boolean children() default false;
+}
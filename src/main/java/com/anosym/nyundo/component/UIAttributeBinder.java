@@ -0,0 +1,383 @@
+package com.anosym.nyundo.component;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.anosym.nyundo.annotation.Attribute;
+import com.anosym.nyundo.annotation.Transient;
+import com.anosym.nyundo.element.UIElement;
+import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Primitives;
+import java.beans.Introspector;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Copies the xml attributes of a component onto its {@link UIElement}, and sets them from their xml values.
+ *
+ * The attributes of a component class are resolved once, following the rules of {@link Attribute} and
+ * {@link Transient}, into a table of {@link MethodHandle} accessors. Binding a component afterwards only invokes these
+ * accessors, no reflection happens per render.
+ *
+ * Null and empty attribute values are not bound.
+ *
+ * @author mochieng
+ */
+public final class UIAttributeBinder {
+
+    private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, UIComponent.class);
+    private static final MethodType MUTATOR_TYPE = MethodType.methodType(void.class, UIComponent.class, Object.class);
+
+    private static final ClassValue<UIAttributeBinder> BINDERS = new ClassValue<UIAttributeBinder>() {
+
+        @Override
+        protected UIAttributeBinder computeValue(Class<?> type) {
+            return new UIAttributeBinder(type.asSubclass(UIComponent.class));
+        }
+    };
+
+    private final Class<? extends UIComponent> componentClass;
+    private final List<AttributeAccessor> accessors;
+    private final Map<String, AttributeAccessor> accessorsByName;
+
+    private UIAttributeBinder(@Nonnull final Class<? extends UIComponent> componentClass) {
+        this.componentClass = componentClass;
+        this.accessors = findAccessors(componentClass);
+        final Map<String, AttributeAccessor> byName = Maps.newHashMap();
+        for (AttributeAccessor accessor : accessors) {
+            if (!byName.containsKey(accessor.name)) {
+                byName.put(accessor.name, accessor);
+            }
+        }
+        this.accessorsByName = ImmutableMap.copyOf(byName);
+    }
+
+    @Nonnull
+    public static UIAttributeBinder forClass(@Nonnull final Class<? extends UIComponent> componentClass) {
+        checkNotNull(componentClass, "The component class must not be null");
+
+        return BINDERS.get(componentClass);
+    }
+
+    /**
+     * Binds the attributes of the component onto the specified element.
+     *
+     * @param component
+     * @param element
+     */
+    public static void bind(@Nonnull final UIComponent component, @Nonnull final UIElement element) {
+        checkNotNull(component, "The component must not be null");
+
+        forClass(component.getClass()).bindAttributes(component, element);
+    }
+
+    @Nonnull
+    public Class<? extends UIComponent> getComponentClass() {
+        return componentClass;
+    }
+
+    /**
+     * The names of the attributes of the component class, in their binding order.
+     *
+     * @return
+     */
+    @Nonnull
+    public List<String> getAttributeNames() {
+        final ImmutableList.Builder<String> names = ImmutableList.builder();
+        for (AttributeAccessor accessor : accessors) {
+            names.add(accessor.name);
+        }
+        return names.build();
+    }
+
+    /**
+     * The string values of the attributes of the component, in their binding order. Missing values are null.
+     *
+     * @param component
+     *
+     * @return
+     */
+    @Nonnull
+    public List<String> getAttributeValues(@Nonnull final UIComponent component) {
+        checkNotNull(component, "The component must not be null");
+        checkArgument(componentClass == component.getClass(), "The component (%s) is not of the binder class (%s)",
+                component, componentClass);
+
+        final String[] values = new String[accessors.size()];
+        for (int i = 0; i < values.length; i++) {
+            final Object value = accessors.get(i).get(component);
+            values[i] = value == null ? null : String.valueOf(value);
+        }
+        return Collections.unmodifiableList(Arrays.asList(values));
+    }
+
+    public void bindAttributes(@Nonnull final UIComponent component, @Nonnull final UIElement element) {
+        checkNotNull(component, "The component must not be null");
+        checkNotNull(element, "The element must not be null");
+        checkArgument(componentClass == component.getClass(), "The component (%s) is not of the binder class (%s)",
+                component, componentClass);
+
+        for (AttributeAccessor accessor : accessors) {
+            final Object value = accessor.get(component);
+            if (value != null) {
+                final String stringValue = String.valueOf(value);
+                if (!stringValue.isEmpty()) {
+                    element.addAttribute(accessor.name, stringValue);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the attribute of the component from its string value, converted to the type of the attribute.
+     *
+     * Field attributes are set directly, getter attributes through their java bean setter. Attributes of type
+     * {@link String}, primitive (or boxed primitive) and enum are supported.
+     *
+     * @param component
+     * @param name
+     * @param value
+     *
+     * @throws IllegalArgumentException if the component has no such writable attribute, or the value cannot be
+     * converted.
+     */
+    public void setAttribute(@Nonnull final UIComponent component, @Nonnull final String name, @Nonnull final String value) {
+        checkNotNull(component, "The component must not be null");
+        checkNotNull(name, "The attribute name must not be null");
+        checkNotNull(value, "The attribute value must not be null");
+        checkArgument(componentClass == component.getClass(), "The component (%s) is not of the binder class (%s)",
+                component, componentClass);
+
+        final AttributeAccessor accessor = accessorsByName.get(name);
+        checkArgument(accessor != null && accessor.setter != null, "The component (%s) has no writable attribute (%s)",
+                componentClass.getName(), name);
+        accessor.set(component, convert(value, accessor.type, name));
+    }
+
+    @Nonnull
+    private static Object convert(@Nonnull final String value, @Nonnull final Class<?> type, @Nonnull final String name) {
+        final Class<?> boxedType = Primitives.wrap(type);
+        try {
+            if (boxedType == String.class || boxedType == Object.class || boxedType == CharSequence.class) {
+                return value;
+            }
+            if (boxedType == Boolean.class) {
+                return Boolean.valueOf(value);
+            }
+            if (boxedType == Character.class) {
+                checkArgument(value.length() == 1, "The attribute (%s) requires a single character: %s", name, value);
+                return value.charAt(0);
+            }
+            if (boxedType == Integer.class) {
+                return Integer.valueOf(value.trim());
+            }
+            if (boxedType == Long.class) {
+                return Long.valueOf(value.trim());
+            }
+            if (boxedType == Double.class) {
+                return Double.valueOf(value.trim());
+            }
+            if (boxedType == Float.class) {
+                return Float.valueOf(value.trim());
+            }
+            if (boxedType == Short.class) {
+                return Short.valueOf(value.trim());
+            }
+            if (boxedType == Byte.class) {
+                return Byte.valueOf(value.trim());
+            }
+            if (type.isEnum()) {
+                return enumValue(type, value.trim());
+            }
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid value for the attribute (" + name + "): " + value, ex);
+        }
+        throw new IllegalArgumentException("Unsupported type (" + type.getName() + ") of the attribute (" + name + ")");
+    }
+
+    @Nonnull
+    private static Enum<?> enumValue(@Nonnull final Class<?> type, @Nonnull final String value) {
+        for (Object constant : type.getEnumConstants()) {
+            final Enum<?> enumConstant = (Enum<?>) constant;
+            if (enumConstant.name().equals(value)) {
+                return enumConstant;
+            }
+        }
+        throw new IllegalArgumentException("No enum constant " + type.getName() + "." + value);
+    }
+
+    @Nonnull
+    private static List<AttributeAccessor> findAccessors(@Nonnull final Class<? extends UIComponent> componentClass) {
+        final List<Field> fields = Lists.newArrayList();
+        final List<Method> methods = Lists.newArrayList();
+        boolean annotated = false;
+        for (Class<?> clazz = componentClass; clazz != UIComponent.class; clazz = clazz.getSuperclass()) {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                    fields.add(field);
+                    annotated |= field.isAnnotationPresent(Attribute.class);
+                }
+            }
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(Attribute.class)) {
+                    methods.add(method);
+                    annotated = true;
+                }
+            }
+        }
+        final List<AttributeAccessor> accessors = Lists.newArrayList();
+        for (Field field : fields) {
+            if (field.isAnnotationPresent(Transient.class)) {
+                continue;
+            }
+            if (annotated ? field.isAnnotationPresent(Attribute.class) : !Modifier.isFinal(field.getModifiers())) {
+                final MethodHandle setter = Modifier.isFinal(field.getModifiers()) ? null : unreflectSetter(field);
+                accessors.add(new AttributeAccessor(attributeName(field, field.getName()), field.getType(),
+                        unreflectGetter(field), setter));
+            }
+        }
+        for (Method method : methods) {
+            if (!method.isAnnotationPresent(Transient.class)) {
+                final String propertyName = propertyName(method);
+                final Method setter = findSetter(method, propertyName);
+                accessors.add(new AttributeAccessor(attributeName(method, propertyName), method.getReturnType(),
+                        unreflect(method, ACCESSOR_TYPE), setter == null ? null : unreflect(setter, MUTATOR_TYPE)));
+            }
+        }
+        Collections.sort(accessors, new Comparator<AttributeAccessor>() {
+
+            @Override
+            public int compare(AttributeAccessor o1, AttributeAccessor o2) {
+                return o1.name.compareTo(o2.name);
+            }
+        });
+        return ImmutableList.copyOf(accessors);
+    }
+
+    @Nonnull
+    private static String attributeName(@Nonnull final AccessibleObject member, @Nonnull final String propertyName) {
+        final Attribute attribute = member.getAnnotation(Attribute.class);
+        return attribute == null || Strings.isNullOrEmpty(attribute.name()) ? propertyName : attribute.name();
+    }
+
+    @Nonnull
+    private static String propertyName(@Nonnull final Method method) {
+        checkArgument(method.getParameterTypes().length == 0 && method.getReturnType() != void.class,
+                "@Attribute method (%s) must be a java bean getter", method);
+
+        final String name = method.getName();
+        if (name.startsWith("get") && name.length() > 3) {
+            return Introspector.decapitalize(name.substring(3));
+        }
+        if (name.startsWith("is") && name.length() > 2) {
+            return Introspector.decapitalize(name.substring(2));
+        }
+        return name;
+    }
+
+    /**
+     * Non-public members are made accessible only once, while creating their accessor.
+     */
+    @Nonnull
+    private static MethodHandle unreflectGetter(@Nonnull final Field field) {
+        try {
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(field).asType(ACCESSOR_TYPE);
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException("Cannot access the attribute field: " + field, ex);
+        }
+    }
+
+    @Nonnull
+    private static MethodHandle unreflectSetter(@Nonnull final Field field) {
+        try {
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectSetter(field).asType(MUTATOR_TYPE);
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException("Cannot access the attribute field: " + field, ex);
+        }
+    }
+
+    @Nonnull
+    private static MethodHandle unreflect(@Nonnull final Method method, @Nonnull final MethodType type) {
+        try {
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method).asType(type);
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException("Cannot access the attribute method: " + method, ex);
+        }
+    }
+
+    /**
+     * The java bean setter of the getter, if any.
+     */
+    @Nullable
+    private static Method findSetter(@Nonnull final Method getter, @Nonnull final String propertyName) {
+        final String setterName = "set" + Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+        for (Class<?> clazz = getter.getDeclaringClass(); clazz != null && clazz != UIComponent.class;
+                clazz = clazz.getSuperclass()) {
+            try {
+                final Method setter = clazz.getDeclaredMethod(setterName, getter.getReturnType());
+                if (!Modifier.isStatic(setter.getModifiers())) {
+                    return setter;
+                }
+            } catch (NoSuchMethodException ex) {
+                //Look up the superclass.
+            }
+        }
+        return null;
+    }
+
+    private static final class AttributeAccessor {
+
+        private final String name;
+        private final Class<?> type;
+        private final MethodHandle getter;
+        /**
+         * Null for read-only attributes.
+         */
+        private final MethodHandle setter;
+
+        private AttributeAccessor(@Nonnull final String name, @Nonnull final Class<?> type,
+                @Nonnull final MethodHandle getter, @Nullable final MethodHandle setter) {
+            this.name = name;
+            this.type = type;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        private void set(@Nonnull final UIComponent component, @Nonnull final Object value) {
+            try {
+                setter.invokeExact(component, value);
+            } catch (Throwable ex) {
+                throw Throwables.propagate(ex);
+            }
+        }
+
+        @Nullable
+        private Object get(@Nonnull final UIComponent component) {
+            try {
+                return (Object) getter.invokeExact(component);
+            } catch (Throwable ex) {
+                throw Throwables.propagate(ex);
+            }
+        }
+    }
+}
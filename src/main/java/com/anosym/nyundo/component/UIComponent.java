@@ -9,7 +9,6 @@ import com.google.common.base.Preconditions;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.Random;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
@@ -21,31 +20,77 @@ import javax.validation.constraints.NotNull;
 @Component(name = "component", namespace = "http://nyundo.anosym.com/ui")
 public abstract class UIComponent extends UIStringable implements Iterable<UIComponent> {
 
+    /**
+     * Generates the ids of components created without an id.
+     */
+    private static volatile UIComponentIdGenerator idGenerator = new UICounterComponentIdGenerator();
+
     /**
      * Parent of this component may be null.
      */
     private UIComponent parent;
     /**
-     * Children of this component. may be empty (but not null)
+     * Children of this component, in insertion order. may be empty (but not null)
      */
-    private final Map<UIComponentId, UIComponent> children;
+    private UIComponentChildren children;
     /**
      * The id for this component.
      */
     @NotNull
-    private final UIComponentId componentId;
+    private UIComponentId componentId;
+    /**
+     * The absolute canonical id of this component within its current tree. Always set for a root component, otherwise
+     * only while its {@link #index} is valid.
+     */
+    private String canonicalId;
+    /**
+     * The index of the tree this component was last indexed in. Built lazily by the first lookup, then updated with the
+     * subtrees added to or removed from the tree.
+     */
+    private ComponentIndex index;
+    /**
+     * Whether the attributes or children of this component changed since the changes were last cleared.
+     */
+    private boolean changed;
+    /**
+     * Whether a descendant of this component changed. Set on every ancestor of a changed component, so that the changes
+     * of a tree are found by following the flagged paths only.
+     */
+    private boolean descendantChanged;
 
     protected UIComponent(@NotNull final String simpleId) {
         requireNonNull(simpleId, "UIComponent ID must not be null");
 
-        this.children = new HashMap<>();
+        this.children = UIComponentChildren.empty();
         this.componentId = new UIComponentId(simpleId);
+        this.canonicalId = ":" + this.componentId.getSimpleId();
     }
 
     protected UIComponent() {
         this(uniqueId());
     }
 
+    /**
+     * Sets the id of this component. Only allowed before the component is part of a tree, e.g. right after its
+     * creation by a parser.
+     *
+     * @param simpleId
+     */
+    public final void setId(@Nonnull final String simpleId) {
+        Preconditions.checkNotNull(simpleId, "UIComponent ID must not be null");
+        Preconditions.checkState(parent == null && children.isEmpty(),
+                "The id of a component cannot be changed once part of a tree");
+
+        this.componentId = new UIComponentId(simpleId);
+        this.canonicalId = ":" + this.componentId.getSimpleId();
+        invalidateIndex();
+    }
+
+    /**
+     * Returns an unmodifiable view of the children of this component, in the order in which they were added.
+     *
+     * @return
+     */
     @Nonnull
     public final Map<UIComponentId, UIComponent> getChildren() {
         return children;
@@ -66,14 +111,234 @@ public abstract class UIComponent extends UIStringable implements Iterable<UICom
         return getChildren().values().iterator();
     }
 
+    /**
+     * The absolute canonical id of this component, from the root of its tree, e.g. {@code :form:email}.
+     *
+     * Resolved with the index of the tree, see {@link #findComponent(java.lang.String)}.
+     *
+     * @return
+     */
+    @Nonnull
+    public String getCanonicalId() {
+        if (parent != null && !isIndexed()) {
+            getRoot().buildIndex();
+        }
+        return canonicalId;
+    }
+
+    @Nonnull
+    public UIComponent getRoot() {
+        UIComponent root = this;
+        while (root.parent != null) {
+            root = root.parent;
+        }
+        return root;
+    }
+
     public final void addChild(@Nonnull final UIComponent child) {
         Preconditions.checkNotNull(child, "child component must not be null");
+        Preconditions.checkArgument(child != this, "component cannot be its own child");
+        if (child.parent != null && child.parent != this) {
+            child.parent.removeChild(child);
+        }
         child.parent = this;
-        getChildren().put(child.componentId, child);
+        final UIComponent previous = children.get(child.componentId);
+        children = children.with(child);
+        final boolean indexed = isIndexed();
+        if (previous != null && previous != child) {
+            if (indexed) {
+                unindex(previous);
+            }
+            previous.becomeRoot();
+        }
+        if (previous != child) {
+            child.invalidateIndex();
+            if (indexed) {
+                index(child, canonicalId + ":" + child.componentId.getSimpleId(), index);
+            }
+        }
+        child.markChanged();
+        markChanged();
+    }
+
+    /**
+     * Removes the child component, which becomes the root of its own tree.
+     *
+     * @param child
+     */
+    public final void removeChild(@Nonnull final UIComponent child) {
+        Preconditions.checkNotNull(child, "child component must not be null");
+        Preconditions.checkArgument(child.parent == this, "component is not a child of this component");
+
+        children = children.without(child.componentId);
+        if (isIndexed()) {
+            unindex(child);
+        }
+        child.becomeRoot();
+        markChanged();
+    }
+
+    /**
+     * Marks this component as changed, to be re-rendered by the incremental sessions rendering its tree. Must be called
+     * whenever the value of an attribute of this component changes, children being tracked by
+     * {@link #addChild(UIComponent)} and {@link #removeChild(UIComponent)}.
+     *
+     * Constant time amortized: only the ancestors not yet flagged are.
+     */
+    public final void markChanged() {
+        changed = true;
+        for (UIComponent ancestor = parent; ancestor != null && !ancestor.descendantChanged; ancestor = ancestor.parent) {
+            ancestor.descendantChanged = true;
+        }
+    }
+
+    /**
+     * Whether this component was marked as changed since the changes of its tree were last cleared.
+     *
+     * @return
+     */
+    public final boolean isChanged() {
+        return changed;
+    }
+
+    /**
+     * Whether a descendant of this component was marked as changed since the changes of its tree were last cleared.
+     *
+     * @return
+     */
+    public final boolean hasChangedDescendants() {
+        return descendantChanged;
+    }
+
+    /**
+     * Clears the changes of this component and its descendants, following the flagged paths only.
+     */
+    public final void clearChanges() {
+        changed = false;
+        if (descendantChanged) {
+            descendantChanged = false;
+            for (UIComponent child : children.values()) {
+                if (child.changed || child.descendantChanged) {
+                    child.clearChanges();
+                }
+            }
+        }
+    }
+
+    private void becomeRoot() {
+        parent = null;
+        canonicalId = ":" + componentId.getSimpleId();
+    }
+
+    private boolean isIndexed() {
+        return index != null && index.valid;
+    }
+
+    /**
+     * Invalidates the index of the tree of this component, if any, without walking the tree.
+     */
+    private void invalidateIndex() {
+        if (index != null) {
+            index.valid = false;
+            index = null;
+        }
+    }
+
+    /**
+     * Searches a component within the tree of this component. If the id starts by ':' then it is considered an absolute
+     * id of the component, whose first simple id is the root component. Otherwise the id is relative, and its first
+     * simple id is this component.
+     *
+     * The component is resolved from the index of the tree, without walking the tree. The index is built by the first
+     * lookup, then updated by adding and removing children at the cost of the added or removed subtree only. Children
+     * added before the first lookup are indexed by that lookup.
+     *
+     * @param id
+     *
+     * @return
+     */
+    @Nullable
+    public UIComponent findComponent(@Nonnull final String id) {
+        final String normalizedId = UIComponentId.normalizeCanonicalId(id);
+        if (normalizedId.startsWith(":")) {
+            return getRoot().lookup(normalizedId);
+        }
+        final String simpleId = componentId.getSimpleId();
+        if (!normalizedId.startsWith(simpleId)
+                || (normalizedId.length() > simpleId.length() && normalizedId.charAt(simpleId.length()) != ':')) {
+            return null;
+        }
+        final String absoluteId = parent == null ? ":" + normalizedId : parent.getCanonicalId() + ":" + normalizedId;
+        return getRoot().lookup(absoluteId);
+    }
+
+    /**
+     * Looks the component up from this root component.
+     */
+    @Nullable
+    private UIComponent lookup(@Nonnull final String absoluteId) {
+        if (children.isEmpty()) {
+            return canonicalId.equals(absoluteId) ? this : null;
+        }
+        if (!isIndexed()) {
+            buildIndex();
+        }
+        return index.components.get(absoluteId);
+    }
+
+    /**
+     * Indexes the tree of this root component.
+     */
+    private void buildIndex() {
+        final ComponentIndex treeIndex = new ComponentIndex();
+        index(this, canonicalId, treeIndex);
+    }
+
+    private static void index(@Nonnull final UIComponent component, @Nonnull final String canonicalId,
+            @Nonnull final ComponentIndex index) {
+        component.canonicalId = canonicalId;
+        component.index = index;
+        index.components.put(canonicalId, component);
+        for (UIComponent child : component.children.values()) {
+            index(child, canonicalId + ":" + child.componentId.getSimpleId(), index);
+        }
+    }
+
+    /**
+     * Removes the subtree of the indexed component from the index of its tree.
+     */
+    private static void unindex(@Nonnull final UIComponent component) {
+        component.index.components.remove(component.canonicalId);
+        component.index = null;
+        for (UIComponent child : component.children.values()) {
+            unindex(child);
+        }
+    }
+
+    /**
+     * Sets the generator of the ids of components created without an id.
+     *
+     * @param idGenerator
+     */
+    public static void setIdGenerator(@Nonnull final UIComponentIdGenerator idGenerator) {
+        UIComponent.idGenerator = Preconditions.checkNotNull(idGenerator, "The id generator must not be null");
+    }
+
+    @Nonnull
+    public static UIComponentIdGenerator getIdGenerator() {
+        return idGenerator;
     }
 
     private static String uniqueId() {
-        Random r = new Random(System.currentTimeMillis());
-        return String.valueOf(1000 + r.nextInt(1000)) + "!" + String.valueOf(r.nextInt(10000));
+        return idGenerator.nextId();
+    }
+
+    /**
+     * The components of a tree by absolute canonical id, shared by all the components of the tree.
+     */
+    private static final class ComponentIndex {
+
+        private final Map<String, UIComponent> components = new HashMap<>();
+        private boolean valid = true;
     }
 }
@@ -0,0 +1,255 @@
+package com.anosym.nyundo.component;
+
+import com.anosym.nyundo.util.UIComponentId;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The children of a {@link UIComponent}, by component id, in insertion order.
+ *
+ * The storage adapts to the number of children: leaves share a single empty instance, a few children are kept in a
+ * small array, and only above {@value #HASHED_THRESHOLD} children are they indexed in a hash map.
+ *
+ * The map is not modifiable through the {@link Map} interface, the owning component replaces its storage with the
+ * result of {@link #with(com.anosym.nyundo.component.UIComponent)} and
+ * {@link #without(com.anosym.nyundo.util.UIComponentId)}.
+ *
+ * @author mochieng
+ */
+abstract class UIComponentChildren extends AbstractMap<UIComponentId, UIComponent> {
+
+    static final int HASHED_THRESHOLD = 8;
+
+    private static final UIComponentChildren EMPTY = new ArrayChildren(new UIComponent[0], 0);
+
+    @Nonnull
+    static UIComponentChildren empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Adds the child, replacing any child with the same id at its position.
+     *
+     * @return the storage holding the children, which may be this storage
+     */
+    @Nonnull
+    abstract UIComponentChildren with(@Nonnull final UIComponent child);
+
+    /**
+     * Removes the child with the specified id.
+     *
+     * @return the storage holding the remaining children, which may be this storage
+     */
+    @Nonnull
+    abstract UIComponentChildren without(@Nonnull final UIComponentId componentId);
+
+    private static final class ArrayChildren extends UIComponentChildren {
+
+        private UIComponent[] children;
+        private int size;
+
+        private ArrayChildren(@Nonnull final UIComponent[] children, final int size) {
+            this.children = children;
+            this.size = size;
+        }
+
+        @Override
+        UIComponentChildren with(@Nonnull final UIComponent child) {
+            final int index = indexOf(child.getComponentId());
+            if (index >= 0) {
+                children[index] = child;
+                return this;
+            }
+            if (size == HASHED_THRESHOLD) {
+                return new HashedChildren(this).with(child);
+            }
+            if (this == EMPTY) {
+                return new ArrayChildren(new UIComponent[]{child}, 1);
+            }
+            if (size == children.length) {
+                children = Arrays.copyOf(children, Math.min(HASHED_THRESHOLD, size * 2));
+            }
+            children[size++] = child;
+            return this;
+        }
+
+        @Override
+        UIComponentChildren without(@Nonnull final UIComponentId componentId) {
+            final int index = indexOf(componentId);
+            if (index < 0) {
+                return this;
+            }
+            if (size == 1) {
+                return EMPTY;
+            }
+            System.arraycopy(children, index + 1, children, index, size - index - 1);
+            children[--size] = null;
+            return this;
+        }
+
+        private int indexOf(@Nullable final Object componentId) {
+            for (int i = 0; i < size; i++) {
+                if (children[i].getComponentId().equals(componentId)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return indexOf(key) >= 0;
+        }
+
+        @Override
+        public UIComponent get(final Object key) {
+            final int index = indexOf(key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        @Override
+        public Collection<UIComponent> values() {
+            return new AbstractCollection<UIComponent>() {
+
+                @Override
+                public Iterator<UIComponent> iterator() {
+                    return new ChildIterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+
+        @Override
+        public Set<Entry<UIComponentId, UIComponent>> entrySet() {
+            return new AbstractSet<Entry<UIComponentId, UIComponent>>() {
+
+                @Override
+                public Iterator<Entry<UIComponentId, UIComponent>> iterator() {
+                    final Iterator<UIComponent> childIterator = new ChildIterator();
+                    return new Iterator<Entry<UIComponentId, UIComponent>>() {
+
+                        @Override
+                        public boolean hasNext() {
+                            return childIterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<UIComponentId, UIComponent> next() {
+                            final UIComponent child = childIterator.next();
+                            return new SimpleImmutableEntry<>(child.getComponentId(), child);
+                        }
+
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException("Children must be removed through their component");
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+
+        private final class ChildIterator implements Iterator<UIComponent> {
+
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public UIComponent next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return children[next++];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Children must be removed through their component");
+            }
+        }
+    }
+
+    private static final class HashedChildren extends UIComponentChildren {
+
+        private final Map<UIComponentId, UIComponent> children;
+
+        private HashedChildren(@Nonnull final Map<UIComponentId, UIComponent> children) {
+            this.children = new LinkedHashMap<>(children);
+        }
+
+        @Override
+        UIComponentChildren with(@Nonnull final UIComponent child) {
+            children.put(child.getComponentId(), child);
+            return this;
+        }
+
+        @Override
+        UIComponentChildren without(@Nonnull final UIComponentId componentId) {
+            children.remove(componentId);
+            return this;
+        }
+
+        @Override
+        public int size() {
+            return children.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return children.isEmpty();
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return children.containsKey(key);
+        }
+
+        @Override
+        public UIComponent get(final Object key) {
+            return children.get(key);
+        }
+
+        @Override
+        public Collection<UIComponent> values() {
+            return Collections.unmodifiableCollection(children.values());
+        }
+
+        @Override
+        public Set<Entry<UIComponentId, UIComponent>> entrySet() {
+            return Collections.unmodifiableMap(children).entrySet();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.anosym.nyundo.component;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Generates the simple ids of components created without an explicit id.
+ *
+ * Implementations must be thread-safe, and must never return the same id twice.
+ *
+ * @see UIComponent#setIdGenerator(com.anosym.nyundo.component.UIComponentIdGenerator)
+ *
+ * @author mochieng
+ */
+public interface UIComponentIdGenerator {
+
+    @Nonnull
+    String nextId();
+}
@@ -0,0 +1,61 @@
+package com.anosym.nyundo.component;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+
+/**
+ * The default {@link UIComponentIdGenerator}.
+ *
+ * Every thread reserves a block of ids from a shared counter, and then generates the ids of its block without any
+ * contention. Ids are the base-36 counter value prefixed by '!', e.g. {@code !1a}, which cannot clash with ids
+ * specified in a page.
+ *
+ * @author mochieng
+ */
+public final class UICounterComponentIdGenerator implements UIComponentIdGenerator {
+
+    private static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    private static final String ID_PREFIX = "!";
+
+    private final int blockSize;
+    private final AtomicLong nextBlock;
+    private final ThreadLocal<IdBlock> idBlocks;
+
+    public UICounterComponentIdGenerator(final int blockSize) {
+        checkArgument(blockSize > 0, "The id block size must be positive");
+
+        this.blockSize = blockSize;
+        this.nextBlock = new AtomicLong();
+        this.idBlocks = new ThreadLocal<IdBlock>() {
+
+            @Override
+            protected IdBlock initialValue() {
+                return new IdBlock();
+            }
+        };
+    }
+
+    public UICounterComponentIdGenerator() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    @Nonnull
+    @Override
+    public String nextId() {
+        final IdBlock idBlock = idBlocks.get();
+        if (idBlock.next == idBlock.limit) {
+            idBlock.next = nextBlock.getAndIncrement() * blockSize;
+            idBlock.limit = idBlock.next + blockSize;
+        }
+        return ID_PREFIX + Long.toString(idBlock.next++, Character.MAX_RADIX);
+    }
+
+    private static final class IdBlock {
+
+        private long next;
+        private long limit;
+    }
+}
@@ -7,6 +7,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.anosym.nyundo.UIStringable;
 import com.google.common.base.Strings;
+import java.io.IOException;
 import java.util.Objects;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -20,17 +21,23 @@ import javax.validation.constraints.NotNull;
  */
 public final class UIAttribute extends UIStringable implements UIRepresentable, Comparable<UIAttribute> {
 
-    private final String name;
+    private final UIName name;
     private final String value;
     private final UINamespace namespace;
+    /**
+     * The name as rendered, qualified by the namespace prefix if the namespace requires qualified attributes.
+     */
+    private final transient UIName renderedName;
 
     public UIAttribute(@Nonnull final String name, @Nonnull final String value, @Nullable UINamespace namespace) {
         checkArgument(!Strings.isNullOrEmpty(name), "The attribute name must be specified");
         checkArgument(!Strings.isNullOrEmpty(value), "the attribute value must be specified");
 
-        this.name = name;
+        this.name = UIName.of(name);
         this.value = value;
         this.namespace = namespace;
+        this.renderedName = namespace != null && namespace.isAttributeQualified()
+                ? this.name.qualify(namespace.getXmlns()) : this.name;
     }
 
     public UIAttribute(@NotNull String name, @NotNull String value) {
@@ -38,7 +45,16 @@ public final class UIAttribute extends UIStringable implements UIRepresentable,
     }
 
     public String getName() {
-        return name;
+        return name.getLocalName();
+    }
+
+    /**
+     * The name as rendered, qualified by the namespace prefix if the namespace requires qualified attributes.
+     *
+     * @return
+     */
+    public String getQualifiedName() {
+        return renderedName.getQualifiedName();
     }
 
     public String getValue() {
@@ -56,7 +72,7 @@ public final class UIAttribute extends UIStringable implements UIRepresentable,
     public int compareTo(@Nonnull final UIAttribute o) {
         checkNotNull(o, "Cannot compare attribute to null object");
 
-        return this.name.compareToIgnoreCase(o.name);
+        return this.name.getLocalName().compareToIgnoreCase(o.name.getLocalName());
     }
 
     @Override
@@ -73,9 +89,18 @@ public final class UIAttribute extends UIStringable implements UIRepresentable,
 
     @Override
     public Appendable renderXml(final int leadingSpacing) {
-        final String xmlnPrefix = namespace != null && namespace.isAttributeQualified() ? namespace.getXmlns() + ":" : "";
-        return attachSpacing(new StringBuilder(), leadingSpacing)
-                .append(xmlnPrefix).append(name).append("=\"").append(value).append("\"");
+        return UIUtil.renderXml(this, leadingSpacing);
+    }
+
+    @Override
+    public void renderTo(@Nonnull final Appendable out) throws IOException {
+        renderTo(out, 0);
+    }
+
+    @Override
+    public void renderTo(@Nonnull final Appendable out, final int leadingSpacing) throws IOException {
+        attachSpacing(out, leadingSpacing);
+        UIXmlEscaper.escapeAttribute(renderedName.appendAttributeStart(out), value).append('"');
     }
 
 }
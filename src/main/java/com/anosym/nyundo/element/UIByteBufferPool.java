@@ -0,0 +1,84 @@
+package com.anosym.nyundo.element;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+
+/**
+ * A bounded pool of equally sized {@link ByteBuffer}s used by {@link UIUtf8Output}.
+ *
+ * Buffers are handed out cleared. At most {@code maxPooled} buffers are retained once released, the rest are left to
+ * the garbage collector.
+ *
+ * @author mochieng
+ */
+public final class UIByteBufferPool {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    private static final int DEFAULT_MAX_POOLED = 64;
+
+    private static final UIByteBufferPool DEFAULT_POOL = new UIByteBufferPool(DEFAULT_BUFFER_SIZE, DEFAULT_MAX_POOLED, false);
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final boolean direct;
+    private final Queue<ByteBuffer> buffers;
+    private final AtomicInteger pooled;
+
+    public UIByteBufferPool(final int bufferSize, final int maxPooled, final boolean direct) {
+        checkArgument(bufferSize >= 16, "The buffer size must be at least 16 bytes");
+        checkArgument(maxPooled >= 0, "The maximum pooled buffers must not be negative");
+
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+        this.direct = direct;
+        this.buffers = new ConcurrentLinkedQueue<>();
+        this.pooled = new AtomicInteger();
+    }
+
+    /**
+     * The shared pool of heap buffers.
+     *
+     * @return
+     */
+    @Nonnull
+    public static UIByteBufferPool getDefault() {
+        return DEFAULT_POOL;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    @Nonnull
+    public ByteBuffer acquire() {
+        final ByteBuffer buffer = buffers.poll();
+        if (buffer != null) {
+            pooled.decrementAndGet();
+            return buffer;
+        }
+        return direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+    }
+
+    public void release(@Nonnull final ByteBuffer buffer) {
+        checkNotNull(buffer, "The buffer to release must not be null");
+        checkArgument(buffer.capacity() == bufferSize, "The buffer does not belong to this pool");
+
+        buffer.clear();
+        if (pooled.incrementAndGet() <= maxPooled) {
+            buffers.offer(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.anosym.nyundo.element;
 
-import static com.anosym.nyundo.element.UIUtil.attachSpacing;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
@@ -9,13 +8,15 @@ import com.anosym.nyundo.UIStringable;
 import com.anosym.nyundo.component.UIComponent;
 import com.google.common.base.Objects;
 import com.google.common.base.Strings;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.SortedSet;
-import java.util.concurrent.ConcurrentSkipListSet;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * This is a kind of transformation from {@link UIComponent} to an xml ui element, but not necessarily html.
@@ -29,45 +30,63 @@ public class UIElement extends UIStringable implements Comparable<UIElement>, UI
     //Some constants
     private static final int SPACING_MARGIN = 4;
 
-    private static final int CONSTANT_HASH_INC = 10;
+    private static final UIAttribute[] NO_ATTRIBUTES = new UIAttribute[0];
     /**
-     * This unique id is used to track the relative positioning of this element to its parent.
+     * The position of this element among the children of its parent, 0 for a detached element.
      */
-    private int hashId;
+    private int position;
     /**
      * The current element namespace.
      */
     private UINamespace targetNamespace;
     /**
-     * The declared namespaces on this element.
+     * The declared namespaces on this element, in the order in which they were declared. Null until the first
+     * declaration.
      */
-    private final Set<UINamespace> declaredNamespaces;
+    private Set<UINamespace> declaredNamespaces;
     /**
-     * Children element of this element, in the order in which they were added.
+     * Children element of this element, in the order in which they were added. Null until the first child is added.
      */
-    private final List<UIElement> children;
+    private List<UIElement> children;
     /**
      * The parent of this element. May be null.
      */
     private UIElement parentElement;
     /**
-     * The attributes of this element. Never empty.
+     * The attributes of this element, sorted by name. Only the first {@link #attributeCount} entries are set.
      */
-    private final SortedSet<UIAttribute> attributes;
+    private UIAttribute[] attributes;
+    private int attributeCount;
     /**
      * The name of the element. (its tag markup).
      */
-    private final String name;
+    private final UIName name;
+    /**
+     * Whether this element is qualified by the prefix of its name, rather than by its target namespace or ancestors.
+     */
+    private final boolean prefixed;
 
     public UIElement(@Nonnull final String name, final UIElement parentElement) {
-        checkArgument(!Strings.isNullOrEmpty(name), "The UIElement markup name must not be null or empty");
+        this(UIName.of(checkName(name)), false, parentElement);
+    }
+
+    /**
+     * Creates an element qualified by the prefix, or unqualified if null, instead of by the prefix of its ancestors,
+     * e.g. parsed markup. Its descendants inherit the prefix, and it has no target namespace.
+     *
+     * @param prefix the prefix of the element, null if unqualified
+     * @param name the unqualified name of the element
+     * @param parentElement
+     */
+    public UIElement(@Nullable final String prefix, @Nonnull final String name,
+            @Nullable final UIElement parentElement) {
+        this(UIName.of(Strings.emptyToNull(prefix), checkName(name)), true, parentElement);
+    }
 
+    private UIElement(@Nonnull final UIName name, final boolean prefixed, @Nullable final UIElement parentElement) {
         this.name = name;
-        this.declaredNamespaces = new ConcurrentSkipListSet<>();
-        this.hashId = 0;
-        this.children = new ArrayList<>();
-        this.parentElement = null;
-        this.attributes = new ConcurrentSkipListSet<>();
+        this.prefixed = prefixed;
+        this.attributes = NO_ATTRIBUTES;
         this.parentElement = parentElement;
         final UIElement thisChild = this;
         if (parentElement != null) {
@@ -75,17 +94,29 @@ public class UIElement extends UIStringable implements Comparable<UIElement>, UI
         }
     }
 
-    public final String getName() {
+    @Nonnull
+    private static String checkName(final String name) {
+        checkArgument(!Strings.isNullOrEmpty(name), "The UIElement markup name must not be null or empty");
         return name;
     }
 
+    public final String getName() {
+        return name.getLocalName();
+    }
+
     public Set<UINamespace> getDeclaredNamespaces() {
+        if (declaredNamespaces == null) {
+            return Collections.emptySet();
+        }
         return Collections.unmodifiableSet(declaredNamespaces);
     }
 
     public void declareNamespace(@Nonnull final UINamespace namespace) {
         checkNotNull(namespace, "Namespace must not be null");
-        checkArgument(Objects.equal(this.targetNamespace, namespace), "Specified namespace is the targetnamespace for this element");
+        checkArgument(!Objects.equal(this.targetNamespace, namespace), "Specified namespace is the targetnamespace for this element");
+        if (this.declaredNamespaces == null) {
+            this.declaredNamespaces = new LinkedHashSet<>(2);
+        }
         checkState(this.declaredNamespaces.add(namespace), "Specified namespace is already declared on this element");
     }
 
@@ -95,34 +126,85 @@ public class UIElement extends UIStringable implements Comparable<UIElement>, UI
 
     public void setTargetNamespace(@Nonnull final UINamespace targetNamespace) {
         checkNotNull(targetNamespace, "targetNamespace must not be null");
+        checkState(!prefixed, "An element qualified by its own prefix has no target namespace");
         //remove it from declared namespace if it exists.
-        this.declaredNamespaces.remove(this.targetNamespace);
+        if (this.declaredNamespaces != null) {
+            this.declaredNamespaces.remove(this.targetNamespace);
+        }
         declareNamespace(targetNamespace);
 
         this.targetNamespace = targetNamespace;
     }
 
     public int getChildrenCount() {
-        return 0;
+        return children == null ? 0 : children.size();
     }
 
-    private synchronized int getNextChildHash() {
-        return (this.hashId + CONSTANT_HASH_INC * children.size());
+    /**
+     * The position of this element among the children of its parent.
+     *
+     * @return
+     */
+    public int getPosition() {
+        return position;
     }
 
-    private synchronized void addChild(final UIElement child) {
-        child.hashId = getNextChildHash();
-        child.updateChildrenHashId();
-        //then add to the set.
+    private void addChild(final UIElement child) {
+        if (children == null) {
+            children = new ArrayList<>(4);
+        }
+        child.position = children.size();
         children.add(child);
     }
 
-    private void updateChildrenHashId() {
-        for (UIElement child : children) {
-            child.hashId = getNextChildHash();
-            //Because this is constant increment, we do not need to reinitialize the list.
-            child.updateChildrenHashId();
+    /**
+     * Attaches a detached element (created without a parent element) as the last child of this element.
+     *
+     * @param child
+     */
+    public void appendChild(@Nonnull final UIElement child) {
+        checkNotNull(child, "The child element must not be null");
+        checkArgument(child.parentElement == null, "The child element is already attached to a parent element");
+        checkArgument(child != this, "An element cannot be its own child");
+
+        child.parentElement = this;
+        addChild(child);
+    }
+
+    /**
+     * Replaces the child element by a detached element, at the same position.
+     *
+     * @param oldChild the child to replace, detached once replaced
+     * @param newChild the detached element replacing it
+     */
+    public void replaceChild(@Nonnull final UIElement oldChild, @Nonnull final UIElement newChild) {
+        checkNotNull(oldChild, "The replaced child element must not be null");
+        checkNotNull(newChild, "The replacing child element must not be null");
+        checkArgument(oldChild.parentElement == this, "The replaced element is not a child of this element");
+        checkArgument(newChild.parentElement == null, "The child element is already attached to a parent element");
+        checkArgument(newChild != this, "An element cannot be its own child");
+
+        children.set(oldChild.position, newChild);
+        newChild.parentElement = this;
+        newChild.position = oldChild.position;
+        oldChild.parentElement = null;
+        oldChild.position = 0;
+    }
+
+    /**
+     * Detaches this element from its parent element, if any.
+     */
+    public void detach() {
+        if (parentElement == null) {
+            return;
+        }
+        final List<UIElement> siblings = parentElement.children;
+        siblings.remove(position);
+        for (int i = position; i < siblings.size(); i++) {
+            siblings.get(i).position = i;
         }
+        parentElement = null;
+        position = 0;
     }
 
     public UIElement getParentElement() {
@@ -136,6 +218,9 @@ public class UIElement extends UIStringable implements Comparable<UIElement>, UI
      */
     @Nonnull
     public Iterable<UIElement> getChildren() {
+        if (children == null) {
+            return Collections.emptyList();
+        }
         return Collections.unmodifiableList(children);
     }
 
@@ -146,13 +231,21 @@ public class UIElement extends UIStringable implements Comparable<UIElement>, UI
      */
     @Nonnull
     public Iterable<UIAttribute> getAttributes() {
-        return Collections.unmodifiableSet(attributes);
+        return Collections.unmodifiableList(Arrays.asList(attributes).subList(0, attributeCount));
     }
 
     public final void addAttribute(@Nonnull final UIAttribute attribute) {
-        checkState(this.attributes.add(checkNotNull(attribute, "Attribute must not be null")),
-                "Duplicate attribute definition: ",
-                attribute.getName());
+        checkNotNull(attribute, "Attribute must not be null");
+        final int index = Arrays.binarySearch(attributes, 0, attributeCount, attribute);
+        checkState(index < 0, "Duplicate attribute definition: %s", attribute.getName());
+
+        final int insertion = -(index + 1);
+        if (attributeCount == attributes.length) {
+            attributes = Arrays.copyOf(attributes, attributeCount == 0 ? 2 : attributeCount * 2);
+        }
+        System.arraycopy(attributes, insertion, attributes, insertion + 1, attributeCount - insertion);
+        attributes[insertion] = attribute;
+        attributeCount++;
     }
 
     public final void addAttribute(@Nonnull final String key, @Nonnull final Object value) {
@@ -166,9 +259,18 @@ public class UIElement extends UIStringable implements Comparable<UIElement>, UI
         return targetNamespace != null && targetNamespace.isElementQualified();
     }
 
-    private String getXmlns() {
+    /**
+     * The namespace prefix qualifying this element: its own prefix if created with one, else that of its target
+     * namespace, else that of its closest ancestor.
+     *
+     * @return the prefix, null if unqualified
+     */
+    @Nullable
+    public String getXmlns() {
         String xmlns = null;
-        if (targetNamespace != null) {
+        if (prefixed) {
+            xmlns = name.getPrefix();
+        } else if (targetNamespace != null) {
             xmlns = targetNamespace.getXmlns();
         } else if (parentElement != null) {
             xmlns = parentElement.getXmlns();
@@ -185,62 +287,132 @@ public class UIElement extends UIStringable implements Comparable<UIElement>, UI
      */
     @Override
     public synchronized Appendable renderXml(final int spacing) {
-        final StringBuilder xml = new StringBuilder();
-        toXmlString(this, xml, spacing);
-        return xml;
+        return UIUtil.renderXml(this, spacing);
     }
 
     public synchronized Appendable renderXml() {
         return renderXml(0);
     }
 
-    private static void toXmlString(@Nonnull final UIElement elem, @Nonnull final StringBuilder xml, final int spacing) {
+    /**
+     * Returns the xml string for this element, rendered in the specified mode.
+     *
+     * @param mode
+     *
+     * @return
+     */
+    public synchronized Appendable renderXml(@Nonnull final UIRenderMode mode) {
+        final StringBuilder xml = new StringBuilder();
+        try {
+            renderTo(xml, 0, mode);
+        } catch (IOException ex) {
+            //StringBuilder never throws.
+            throw new IllegalStateException(ex);
+        }
+        return xml;
+    }
+
+    @Override
+    public void renderTo(@Nonnull final Appendable out) throws IOException {
+        renderTo(out, 0);
+    }
+
+    @Override
+    public void renderTo(@Nonnull final Appendable out, final int spacing) throws IOException {
+        renderTo(out, spacing, UIRenderMode.PRETTY);
+    }
+
+    public void renderTo(@Nonnull final Appendable out, @Nonnull final UIRenderMode mode) throws IOException {
+        renderTo(out, 0, mode);
+    }
+
+    public void renderTo(@Nonnull final Appendable out, final int spacing, @Nonnull final UIRenderMode mode)
+            throws IOException {
+        toXmlString(this, out, spacing, checkNotNull(mode, "The render mode must not be null"));
+    }
+
+    private static void toXmlString(@Nonnull final UIElement elem, @Nonnull final Appendable xml, final int spacing,
+            @Nonnull final UIRenderMode mode) throws IOException {
         checkNotNull(elem, "The UIElement must not be null");
         checkNotNull(xml, "The appendable must not be null");
 
         //Attach spacing
-        attachSpacing(xml, spacing);
+        mode.indent(xml, spacing);
         //Start xml
-        xml.append("<");
-        final StringBuilder markupTag;
-        final String xmlns = elem.getXmlns();
-        if (xmlns == null) {
-            markupTag = new StringBuilder(elem.name);
-        } else {
-            markupTag = new StringBuilder(xmlns).append(":").append(elem.name);
-        }
-        xml.append(markupTag); //Open
+        final UIName tag = elem.name.qualify(elem.getXmlns());
+        tag.appendOpenTag(xml); //Open
 
         if (elem.targetNamespace != null) {
             // Append the namespace target.
-            attachSpacing(xml, 2).append("targetNamespace=").append(elem.targetNamespace.getUri());
+            mode.separate(xml);
+            elem.targetNamespace.renderTargetTo(xml);
         }
-        for (UINamespace namespace : elem.declaredNamespaces) {
-            xml.append(namespace.renderXml(2));
+        if (elem.declaredNamespaces != null) {
+            for (UINamespace namespace : elem.declaredNamespaces) {
+                mode.separate(xml);
+                namespace.renderTo(xml);
+            }
         }
-        for (UIAttribute attr : elem.attributes) {
-            xml.append(attr.renderXml(2));
+        for (int i = 0; i < elem.attributeCount; i++) {
+            mode.separate(xml);
+            elem.attributes[i].renderTo(xml);
         }
-        final boolean empty = elem.children.isEmpty();
+        final boolean empty = elem.children == null || elem.children.isEmpty();
         if (empty) {
             xml.append("/>"); //Close
         } else {
-            xml.append(">");
-        }
-        xml.append("\n"); //Whether the xml content is empty or not, we require newline.
-        // Render children.
-        for (UIElement e : elem.children) {
-            xml.append(e.renderXml(spacing + SPACING_MARGIN));
+            xml.append('>');
         }
+        mode.newLine(xml); //Whether the xml content is empty or not, we require newline.
         if (!empty) {
-            xml.append("\n");
-            attachSpacing(xml, spacing);
-            xml.append("</").append(markupTag).append(">").append("\n"); // Close and start new line
+            // Render children.
+            for (UIElement e : elem.children) {
+                e.renderTo(xml, spacing + SPACING_MARGIN, mode);
+            }
+            mode.newLine(xml);
+            mode.indent(xml, spacing);
+            tag.appendCloseTag(xml);
+            mode.newLine(xml); // Close and start new line
+        }
+    }
+
+    /**
+     * Replays this element, and its descendants, as markup events.
+     *
+     * @param handler
+     *
+     * @throws IOException
+     */
+    public void emitTo(@Nonnull final UIMarkupHandler handler) throws IOException {
+        checkNotNull(handler, "The markup handler must not be null");
+
+        if (prefixed) {
+            handler.startElement(name.getPrefix(), name.getLocalName());
+        } else {
+            handler.startElement(name.getLocalName());
+        }
+        if (declaredNamespaces != null) {
+            for (UINamespace namespace : declaredNamespaces) {
+                if (namespace.equals(targetNamespace)) {
+                    handler.targetNamespace(namespace);
+                } else {
+                    handler.declareNamespace(namespace);
+                }
+            }
+        }
+        for (int i = 0; i < attributeCount; i++) {
+            handler.attribute(attributes[i].getQualifiedName(), attributes[i].getValue());
+        }
+        if (children != null) {
+            for (UIElement child : children) {
+                child.emitTo(handler);
+            }
         }
+        handler.endElement();
     }
 
     /**
-     * Comparison based on the uielement's hashid.
+     * Comparison based on the uielement's position within its parent.
      *
      * For Elements of the same parent, this is consistent with {@link #equals(java.lang.Object) }
      *
@@ -250,13 +422,13 @@ public class UIElement extends UIStringable implements Comparable<UIElement>, UI
      */
     @Override
     public int compareTo(UIElement o) {
-        return Integer.valueOf(hashId).compareTo(o.hashId);
+        return Integer.compare(position, o.position);
     }
 
     @Override
     public int hashCode() {
         int hash = 5;
-        hash = 23 * hash + this.hashId;
+        hash = 23 * hash + this.position;
         hash = 23 * hash + Objects.hashCode(this.name);
         return hash;
     }
@@ -270,7 +442,7 @@ public class UIElement extends UIStringable implements Comparable<UIElement>, UI
             return false;
         }
         final UIElement other = (UIElement) obj;
-        if (this.hashId != other.hashId) {
+        if (this.parentElement != other.parentElement || this.position != other.position) {
             return false;
         }
         return Objects.equal(this.name, other.name);
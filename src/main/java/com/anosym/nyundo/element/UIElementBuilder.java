@@ -0,0 +1,106 @@
+package com.anosym.nyundo.element;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Builds the {@link UIElement} tree of markup events. Attributes with empty values are dropped, as elements do not
+ * support them.
+ *
+ * @author mochieng
+ */
+public final class UIElementBuilder implements UIMarkupHandler {
+
+    private final UIElement parentElement;
+    private UIElement currentElement;
+    private UIElement firstElement;
+    private int depth;
+
+    /**
+     * @param parentElement the element to which the built elements are attached, null to build detached elements.
+     */
+    public UIElementBuilder(@Nullable final UIElement parentElement) {
+        this.parentElement = parentElement;
+    }
+
+    /**
+     * The first element started, at the top level of this builder.
+     *
+     * @return
+     */
+    @Nullable
+    public UIElement getFirstElement() {
+        return firstElement;
+    }
+
+    /**
+     * The element receiving the next events, the parent element if no element is open.
+     *
+     * @return
+     */
+    @Nullable
+    public UIElement getCurrentElement() {
+        return depth > 0 ? currentElement : parentElement;
+    }
+
+    @Override
+    public void startElement(@Nonnull final String name) {
+        start(new UIElement(name, getCurrentElement()));
+    }
+
+    @Override
+    public void startElement(@Nullable final String prefix, @Nonnull final String name) {
+        start(new UIElement(prefix, name, getCurrentElement()));
+    }
+
+    @Override
+    public void targetNamespace(@Nonnull final UINamespace namespace) {
+        checkOpen().setTargetNamespace(namespace);
+    }
+
+    @Override
+    public void declareNamespace(@Nonnull final UINamespace namespace) {
+        checkOpen().declareNamespace(namespace);
+    }
+
+    @Override
+    public void attribute(@Nonnull final String name, @Nonnull final String value) {
+        final UIElement element = checkOpen();
+        if (!value.isEmpty()) {
+            element.addAttribute(new UIAttribute(name, value));
+        }
+    }
+
+    @Override
+    public void text(@Nonnull final String content) {
+        new UIText(content, getCurrentElement());
+    }
+
+    @Override
+    public void fragment(@Nonnull final String markup) {
+        new UIFragment(markup, getCurrentElement());
+    }
+
+    @Override
+    public void endElement() {
+        currentElement = checkOpen().getParentElement();
+        depth--;
+    }
+
+    private void start(@Nonnull final UIElement element) {
+        if (firstElement == null) {
+            firstElement = element;
+        }
+        currentElement = element;
+        depth++;
+    }
+
+    @Nonnull
+    private UIElement checkOpen() {
+        checkState(depth > 0, "There is no open element");
+
+        return currentElement;
+    }
+}
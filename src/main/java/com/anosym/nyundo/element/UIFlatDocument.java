@@ -0,0 +1,579 @@
+package com.anosym.nyundo.element;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.base.Strings;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A document store for very large renders, alternative to a tree of {@link UIElement}s.
+ *
+ * Every node is a fixed-size record of ints (kind, parent, first and last child, next sibling, name, first and last
+ * attribute) within a single {@link IntBuffer}, and every attribute a record (name, value start and length, next
+ * attribute) within another. Only element and attribute names are interned, in a {@link UIStringTable} alongside
+ * their {@link UIName}, so that rendering a node never looks its name up again: texts and
+ * attribute values are appended to a single {@link CharBuffer}, and referred to by offset. The buffers may be allocated
+ * off-heap. Building and rendering a document hence allocates a handful of large buffers instead of an object per node.
+ *
+ * Nodes are referred to by their int handle. The builder calls mirror those of {@link UIElement}:
+ *
+ * <pre>
+ *  <code>
+ *   UIFlatDocument document = new UIFlatDocument();
+ *   int html = document.createElement("html", UIFlatDocument.NO_NODE);
+ *   int body = document.createElement("body", html);
+ *   document.addAttribute(body, "class", "main");
+ *   document.createText("Hello", body);
+ *   document.renderTo(out, UIRenderMode.COMPACT);
+ *  </code>
+ * </pre>
+ *
+ * Renderers build a document through the {@link UIMarkupHandler} returned by {@link #newBuilder()}, see
+ * {@code UIRenderingManager#renderFlat}.
+ *
+ * Unlike {@link UIElement}, attributes are rendered in the order in which they were added, and are not checked for
+ * duplicates. A document is not thread-safe.
+ *
+ * @author mochieng
+ */
+public final class UIFlatDocument implements UIRepresentable {
+
+    /**
+     * The handle of a missing node, e.g. the parent of a root element.
+     */
+    public static final int NO_NODE = -1;
+
+    private static final int SPACING_MARGIN = 4;
+
+    private static final int ELEMENT = 0;
+    private static final int TEXT = 1;
+    private static final int FRAGMENT = 2;
+
+    //Node record layout
+    private static final int KIND = 0;
+    private static final int PARENT = 1;
+    private static final int FIRST_CHILD = 2;
+    private static final int LAST_CHILD = 3;
+    private static final int NEXT_SIBLING = 4;
+    private static final int NAME = 5;
+    private static final int FIRST_ATTRIBUTE = 6;
+    private static final int LAST_ATTRIBUTE = 7;
+    private static final int NODE_STRIDE = 8;
+    //Text and fragment nodes have neither name nor attributes, their content takes these slots.
+    private static final int CONTENT_START = NAME;
+    private static final int CONTENT_LENGTH = FIRST_ATTRIBUTE;
+
+    //Attribute record layout
+    private static final int ATTRIBUTE_NAME = 0;
+    private static final int VALUE_START = 1;
+    private static final int VALUE_LENGTH = 2;
+    private static final int NEXT_ATTRIBUTE = 3;
+    private static final int ATTRIBUTE_STRIDE = 4;
+
+    /**
+     * The expected characters of content per node, to size the content buffer.
+     */
+    private static final int EXPECTED_CONTENT_PER_NODE = 16;
+
+    private static final int DEFAULT_EXPECTED_NODES = 1024;
+
+    private final boolean direct;
+    private final UIStringTable names;
+    /**
+     * The rendered form of every name, by its id in {@link #names}.
+     */
+    private UIName[] markupNames;
+    private CharBuffer content;
+    private int contentLength;
+    private IntBuffer nodes;
+    private int nodeCount;
+    private IntBuffer attributes;
+    private int attributeCount;
+    private int firstRoot;
+    private int lastRoot;
+
+    /**
+     * @param expectedNodes the initial node capacity
+     * @param direct whether the node and attribute records are allocated off-heap
+     */
+    public UIFlatDocument(final int expectedNodes, final boolean direct) {
+        checkArgument(expectedNodes > 0, "The expected node count must be positive");
+
+        this.direct = direct;
+        this.names = new UIStringTable();
+        this.markupNames = new UIName[16];
+        this.content = allocateContent(expectedNodes * EXPECTED_CONTENT_PER_NODE);
+        this.nodes = allocate(expectedNodes * NODE_STRIDE);
+        this.attributes = allocate(expectedNodes * ATTRIBUTE_STRIDE);
+        this.firstRoot = NO_NODE;
+        this.lastRoot = NO_NODE;
+    }
+
+    public UIFlatDocument() {
+        this(DEFAULT_EXPECTED_NODES, false);
+    }
+
+    /**
+     * Creates an element as the last child of the parent.
+     *
+     * @param name
+     * @param parent the parent element, or {@link #NO_NODE} for a root element
+     *
+     * @return the handle of the element
+     */
+    public int createElement(@Nonnull final String name, final int parent) {
+        checkArgument(!Strings.isNullOrEmpty(name), "The element markup name must not be null or empty");
+
+        return createNode(ELEMENT, nameId(UIName.of(name)), parent);
+    }
+
+    /**
+     * Creates a text node as the last child of the parent element.
+     *
+     * @param content
+     * @param parent
+     *
+     * @return the handle of the text node
+     */
+    public int createText(@Nonnull final String content, final int parent) {
+        checkNotNull(content, "The text content must not be null");
+        checkElementIndex(parent, nodeCount, "A text requires a parent element");
+
+        return createContentNode(TEXT, content, parent);
+    }
+
+    /**
+     * Creates a node holding already serialized markup as the last child of the parent, see {@link UIFragment}.
+     *
+     * @param markup
+     * @param parent the parent element, or {@link #NO_NODE} for a root fragment
+     *
+     * @return the handle of the fragment node
+     */
+    public int createFragment(@Nonnull final String markup, final int parent) {
+        checkNotNull(markup, "The fragment markup must not be null");
+
+        return createContentNode(FRAGMENT, markup, parent);
+    }
+
+    public void addAttribute(final int element, @Nonnull final String key, @Nonnull final Object value) {
+        checkElement(element);
+        checkArgument(!Strings.isNullOrEmpty(key), "Attribute key must not be null");
+        checkNotNull(value, "Attribute value must not be null");
+
+        if ((attributeCount + 1) * ATTRIBUTE_STRIDE > attributes.capacity()) {
+            attributes = grow(attributes, attributeCount * ATTRIBUTE_STRIDE);
+        }
+        final int attribute = attributeCount++;
+        final int offset = attribute * ATTRIBUTE_STRIDE;
+        final String stringValue = String.valueOf(value);
+        attributes.put(offset + ATTRIBUTE_NAME, nameId(UIName.of(key)));
+        attributes.put(offset + VALUE_START, appendContent(stringValue));
+        attributes.put(offset + VALUE_LENGTH, stringValue.length());
+        attributes.put(offset + NEXT_ATTRIBUTE, NO_NODE);
+        final int elementOffset = element * NODE_STRIDE;
+        final int lastAttribute = nodes.get(elementOffset + LAST_ATTRIBUTE);
+        if (lastAttribute == NO_NODE) {
+            nodes.put(elementOffset + FIRST_ATTRIBUTE, attribute);
+        } else {
+            attributes.put(lastAttribute * ATTRIBUTE_STRIDE + NEXT_ATTRIBUTE, attribute);
+        }
+        nodes.put(elementOffset + LAST_ATTRIBUTE, attribute);
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getParent(final int node) {
+        checkElementIndex(node, nodeCount, "node");
+
+        return nodes.get(node * NODE_STRIDE + PARENT);
+    }
+
+    public int getFirstChild(final int node) {
+        checkElementIndex(node, nodeCount, "node");
+
+        return nodes.get(node * NODE_STRIDE + FIRST_CHILD);
+    }
+
+    public int getNextSibling(final int node) {
+        checkElementIndex(node, nodeCount, "node");
+
+        return nodes.get(node * NODE_STRIDE + NEXT_SIBLING);
+    }
+
+    public boolean isText(final int node) {
+        checkElementIndex(node, nodeCount, "node");
+
+        return nodes.get(node * NODE_STRIDE + KIND) == TEXT;
+    }
+
+    public boolean isElement(final int node) {
+        checkElementIndex(node, nodeCount, "node");
+
+        return nodes.get(node * NODE_STRIDE + KIND) == ELEMENT;
+    }
+
+    /**
+     * The name of an element, or the content of a text or fragment node.
+     *
+     * @param node
+     *
+     * @return
+     */
+    @Nonnull
+    public String getName(final int node) {
+        checkElementIndex(node, nodeCount, "node");
+
+        final int offset = node * NODE_STRIDE;
+        if (nodes.get(offset + KIND) == ELEMENT) {
+            return names.get(nodes.get(offset + NAME));
+        }
+        final int start = nodes.get(offset + CONTENT_START);
+        return content.subSequence(start, start + nodes.get(offset + CONTENT_LENGTH)).toString();
+    }
+
+    /**
+     * Returns a handler building the markup events as root nodes of this document. Target namespaces and namespace
+     * declarations are added as attributes, and the element names qualified as by {@link UIElement}.
+     *
+     * @return
+     */
+    @Nonnull
+    public UIMarkupHandler newBuilder() {
+        return new DocumentBuilder();
+    }
+
+    @Override
+    public Appendable renderXml(final int leadingSpacing) {
+        return UIUtil.renderXml(this, leadingSpacing);
+    }
+
+    @Override
+    public void renderTo(@Nonnull final Appendable out) throws IOException {
+        renderTo(out, 0);
+    }
+
+    @Override
+    public void renderTo(@Nonnull final Appendable out, final int leadingSpacing) throws IOException {
+        renderTo(out, leadingSpacing, UIRenderMode.PRETTY);
+    }
+
+    public void renderTo(@Nonnull final Appendable out, @Nonnull final UIRenderMode mode) throws IOException {
+        renderTo(out, 0, mode);
+    }
+
+    /**
+     * Renders every root element in order, in the same layout as {@link UIElement}. The document is walked through its
+     * parent and sibling links, no node object is created.
+     *
+     * @param out
+     * @param leadingSpacing
+     * @param mode
+     *
+     * @throws IOException
+     */
+    public void renderTo(@Nonnull final Appendable out, final int leadingSpacing, @Nonnull final UIRenderMode mode)
+            throws IOException {
+        checkNotNull(out, "The appendable must not be null");
+        checkNotNull(mode, "The render mode must not be null");
+
+        int node = firstRoot;
+        int spacing = leadingSpacing;
+        while (node != NO_NODE) {
+            final int offset = node * NODE_STRIDE;
+            final int kind = nodes.get(offset + KIND);
+            if (kind == TEXT) {
+                final int start = nodes.get(offset + CONTENT_START);
+                UIXmlEscaper.escapeText(out, content, start, start + nodes.get(offset + CONTENT_LENGTH));
+            } else if (kind == FRAGMENT) {
+                final int start = nodes.get(offset + CONTENT_START);
+                mode.indent(out, spacing);
+                out.append(content, start, start + nodes.get(offset + CONTENT_LENGTH));
+                mode.newLine(out);
+            } else {
+                openElement(out, offset, spacing, mode);
+                final int firstChild = nodes.get(offset + FIRST_CHILD);
+                if (firstChild != NO_NODE) {
+                    node = firstChild;
+                    spacing += SPACING_MARGIN;
+                    continue;
+                }
+            }
+            //Completed node, move to its next sibling, closing every completed ancestor.
+            int next = nodes.get(offset + NEXT_SIBLING);
+            while (next == NO_NODE && (node = nodes.get(node * NODE_STRIDE + PARENT)) != NO_NODE) {
+                spacing -= SPACING_MARGIN;
+                closeElement(out, node * NODE_STRIDE, spacing, mode);
+                next = nodes.get(node * NODE_STRIDE + NEXT_SIBLING);
+            }
+            node = next;
+        }
+    }
+
+    private void openElement(@Nonnull final Appendable out, final int offset, final int spacing,
+            @Nonnull final UIRenderMode mode) throws IOException {
+        mode.indent(out, spacing);
+        markupNames[nodes.get(offset + NAME)].appendOpenTag(out);
+        for (int attribute = nodes.get(offset + FIRST_ATTRIBUTE); attribute != NO_NODE;
+                attribute = attributes.get(attribute * ATTRIBUTE_STRIDE + NEXT_ATTRIBUTE)) {
+            final int attributeOffset = attribute * ATTRIBUTE_STRIDE;
+            mode.separate(out);
+            final Appendable value = markupNames[attributes.get(attributeOffset + ATTRIBUTE_NAME)]
+                    .appendAttributeStart(out);
+            final int start = attributes.get(attributeOffset + VALUE_START);
+            UIXmlEscaper.escapeAttribute(value, content, start, start + attributes.get(attributeOffset + VALUE_LENGTH))
+                    .append('"');
+        }
+        out.append(nodes.get(offset + FIRST_CHILD) == NO_NODE ? "/>" : ">");
+        mode.newLine(out);
+    }
+
+    private void closeElement(@Nonnull final Appendable out, final int offset, final int spacing,
+            @Nonnull final UIRenderMode mode) throws IOException {
+        mode.newLine(out);
+        mode.indent(out, spacing);
+        markupNames[nodes.get(offset + NAME)].appendCloseTag(out);
+        mode.newLine(out);
+    }
+
+    private int createContentNode(final int kind, @Nonnull final String nodeContent, final int parent) {
+        final int start = appendContent(nodeContent);
+        final int node = createNode(kind, start, parent);
+        nodes.put(node * NODE_STRIDE + CONTENT_LENGTH, nodeContent.length());
+        return node;
+    }
+
+    /**
+     * Appends the string to the content buffer, returning its start offset.
+     */
+    private int appendContent(@Nonnull final String value) {
+        final int start = contentLength;
+        if (start + value.length() > content.capacity()) {
+            final CharBuffer grown = allocateContent(Math.max(content.capacity() * 2, start + value.length()));
+            final CharBuffer source = content.duplicate();
+            source.position(0).limit(start);
+            grown.put(source);
+            content = grown;
+        }
+        content.position(start);
+        content.put(value);
+        content.position(0);
+        contentLength = start + value.length();
+        return start;
+    }
+
+    private int createNode(final int kind, final int name, final int parent) {
+        if (parent != NO_NODE) {
+            checkElement(parent);
+        }
+        if ((nodeCount + 1) * NODE_STRIDE > nodes.capacity()) {
+            nodes = grow(nodes, nodeCount * NODE_STRIDE);
+        }
+        final int node = nodeCount++;
+        final int offset = node * NODE_STRIDE;
+        nodes.put(offset + KIND, kind);
+        nodes.put(offset + PARENT, parent);
+        nodes.put(offset + FIRST_CHILD, NO_NODE);
+        nodes.put(offset + LAST_CHILD, NO_NODE);
+        nodes.put(offset + NEXT_SIBLING, NO_NODE);
+        nodes.put(offset + NAME, name);
+        nodes.put(offset + FIRST_ATTRIBUTE, NO_NODE);
+        nodes.put(offset + LAST_ATTRIBUTE, NO_NODE);
+        if (parent == NO_NODE) {
+            if (lastRoot == NO_NODE) {
+                firstRoot = node;
+            } else {
+                nodes.put(lastRoot * NODE_STRIDE + NEXT_SIBLING, node);
+            }
+            lastRoot = node;
+        } else {
+            final int parentOffset = parent * NODE_STRIDE;
+            final int lastChild = nodes.get(parentOffset + LAST_CHILD);
+            if (lastChild == NO_NODE) {
+                nodes.put(parentOffset + FIRST_CHILD, node);
+            } else {
+                nodes.put(lastChild * NODE_STRIDE + NEXT_SIBLING, node);
+            }
+            nodes.put(parentOffset + LAST_CHILD, node);
+        }
+        return node;
+    }
+
+    private void checkElement(final int element) {
+        checkElementIndex(element, nodeCount, "element");
+        checkArgument(nodes.get(element * NODE_STRIDE + KIND) == ELEMENT, "The node (%s) is not an element", element);
+    }
+
+    /**
+     * Sets the name of the element.
+     */
+    private void setName(final int element, @Nonnull final UIName name) {
+        nodes.put(element * NODE_STRIDE + NAME, nameId(name));
+    }
+
+    /**
+     * Returns the id of the name, keeping its rendered form when first seen.
+     */
+    private int nameId(@Nonnull final UIName name) {
+        final int id = names.add(name.getQualifiedName());
+        if (id == markupNames.length) {
+            markupNames = Arrays.copyOf(markupNames, id * 2);
+        }
+        if (markupNames[id] == null) {
+            markupNames[id] = name;
+        }
+        return id;
+    }
+
+    /**
+     * Adds the attribute as the first attribute of the element.
+     */
+    private void prependAttribute(final int element, @Nonnull final String key, @Nonnull final String value) {
+        final int elementOffset = element * NODE_STRIDE;
+        final int firstAttribute = nodes.get(elementOffset + FIRST_ATTRIBUTE);
+        final int lastAttribute = nodes.get(elementOffset + LAST_ATTRIBUTE);
+        addAttribute(element, key, value);
+        if (firstAttribute != NO_NODE) {
+            final int attribute = attributeCount - 1;
+            attributes.put(lastAttribute * ATTRIBUTE_STRIDE + NEXT_ATTRIBUTE, NO_NODE);
+            attributes.put(attribute * ATTRIBUTE_STRIDE + NEXT_ATTRIBUTE, firstAttribute);
+            nodes.put(elementOffset + FIRST_ATTRIBUTE, attribute);
+            nodes.put(elementOffset + LAST_ATTRIBUTE, lastAttribute);
+        }
+    }
+
+    @Nonnull
+    private CharBuffer allocateContent(final int capacity) {
+        if (direct) {
+            return ByteBuffer.allocateDirect(capacity * 2).order(ByteOrder.nativeOrder()).asCharBuffer();
+        }
+        return CharBuffer.allocate(capacity);
+    }
+
+    @Nonnull
+    private IntBuffer allocate(final int capacity) {
+        if (direct) {
+            return ByteBuffer.allocateDirect(capacity * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+        return IntBuffer.allocate(capacity);
+    }
+
+    @Nonnull
+    private IntBuffer grow(@Nonnull final IntBuffer buffer, final int used) {
+        final IntBuffer grown = allocate(Math.max(buffer.capacity() * 2, used + NODE_STRIDE));
+        final IntBuffer source = buffer.duplicate();
+        source.position(0).limit(used);
+        grown.put(source);
+        grown.clear();
+        return grown;
+    }
+
+    /**
+     * Builds markup events into the document. The open elements are held with their name and namespace prefix, to
+     * qualify their names as their target namespaces are set.
+     */
+    private final class DocumentBuilder implements UIMarkupHandler {
+
+        private int[] openElements = new int[16];
+        /**
+         * The names of the open elements, null for the elements qualified by their own prefix, which are never
+         * requalified.
+         */
+        private String[] localNames = new String[16];
+        private String[] xmlns = new String[16];
+        private int depth;
+
+        @Override
+        public void startElement(@Nonnull final String name) {
+            checkArgument(!Strings.isNullOrEmpty(name), "The element name must not be null or empty");
+
+            start(name, depth > 0 ? xmlns[depth - 1] : null);
+        }
+
+        @Override
+        public void startElement(@Nullable final String prefix, @Nonnull final String name) {
+            checkArgument(!Strings.isNullOrEmpty(name), "The element name must not be null or empty");
+
+            start(name, Strings.emptyToNull(prefix));
+            localNames[depth - 1] = null;
+        }
+
+        private void start(@Nonnull final String name, @Nullable final String prefix) {
+            final int element = createNode(ELEMENT, nameId(UIName.of(name).qualify(prefix)), currentElement());
+            if (depth == openElements.length) {
+                openElements = Arrays.copyOf(openElements, depth * 2);
+                localNames = Arrays.copyOf(localNames, depth * 2);
+                xmlns = Arrays.copyOf(xmlns, depth * 2);
+            }
+            openElements[depth] = element;
+            localNames[depth] = name;
+            xmlns[depth] = prefix;
+            depth++;
+        }
+
+        @Override
+        public void targetNamespace(@Nonnull final UINamespace namespace) {
+            checkNotNull(namespace, "targetNamespace must not be null");
+            final int element = checkOpen();
+            checkState(localNames[depth - 1] != null, "An element qualified by its own prefix has no target namespace");
+
+            final String prefix = namespace.getXmlns();
+            xmlns[depth - 1] = (prefix == null || prefix.trim().isEmpty()) ? null : prefix;
+            setName(element, UIName.of(localNames[depth - 1]).qualify(xmlns[depth - 1]));
+            prependAttribute(element, "targetNamespace", namespace.getUri());
+            declareNamespace(namespace);
+        }
+
+        @Override
+        public void declareNamespace(@Nonnull final UINamespace namespace) {
+            checkNotNull(namespace, "Namespace must not be null");
+
+            addAttribute(checkOpen(), namespace.getDeclarationName(), namespace.getUri());
+        }
+
+        @Override
+        public void attribute(@Nonnull final String name, @Nonnull final String value) {
+            addAttribute(checkOpen(), name, value);
+        }
+
+        @Override
+        public void text(@Nonnull final String content) {
+            createText(content, currentElement());
+        }
+
+        @Override
+        public void fragment(@Nonnull final String markup) {
+            createFragment(markup, currentElement());
+        }
+
+        @Override
+        public void endElement() {
+            checkOpen();
+
+            xmlns[--depth] = null;
+            localNames[depth] = null;
+        }
+
+        private int currentElement() {
+            return depth > 0 ? openElements[depth - 1] : NO_NODE;
+        }
+
+        private int checkOpen() {
+            checkState(depth > 0, "There is no open element");
+
+            return openElements[depth - 1];
+        }
+    }
+}
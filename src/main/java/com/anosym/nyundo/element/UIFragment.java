@@ -0,0 +1,83 @@
+package com.anosym.nyundo.element;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A leaf element holding an already serialized markup fragment, which is copied as-is to the output.
+ *
+ * The fragment is always written in its compact form. In {@link UIRenderMode#PRETTY} mode it is indented and
+ * terminated as a single line.
+ *
+ * @author mochieng
+ */
+public final class UIFragment extends UIElement {
+
+    private final String markup;
+    private final transient byte[] encodedMarkup;
+
+    public UIFragment(@Nonnull final String markup, @Nullable final UIElement parentElement) {
+        this(checkNotNull(markup, "The fragment markup must not be null"), markup.getBytes(StandardCharsets.UTF_8),
+                parentElement);
+    }
+
+    private UIFragment(@Nonnull final String markup, @Nonnull final byte[] encodedMarkup,
+            @Nullable final UIElement parentElement) {
+        super("fragment-element", parentElement);
+        this.markup = markup;
+        this.encodedMarkup = encodedMarkup;
+    }
+
+    /**
+     * Creates a new fragment element with the same markup, without copying the markup.
+     *
+     * @param parentElement
+     *
+     * @return
+     */
+    @Nonnull
+    public UIFragment copy(@Nullable final UIElement parentElement) {
+        return new UIFragment(markup, encodedMarkup, parentElement);
+    }
+
+    @Nonnull
+    public String getMarkup() {
+        return markup;
+    }
+
+    /**
+     * The size of the markup, in UTF-8 bytes.
+     *
+     * @return
+     */
+    public int getEncodedLength() {
+        return encodedMarkup.length;
+    }
+
+    @Override
+    public Appendable renderXml(int spacing) {
+        return UIUtil.renderXml(this, spacing);
+    }
+
+    @Override
+    public void renderTo(@Nonnull final Appendable out, final int spacing, @Nonnull final UIRenderMode mode)
+            throws IOException {
+        mode.indent(out, spacing);
+        if (out instanceof UIUtf8Output) {
+            ((UIUtf8Output) out).appendEncoded(encodedMarkup);
+        } else {
+            out.append(markup);
+        }
+        mode.newLine(out);
+    }
+
+    @Override
+    public void emitTo(@Nonnull final UIMarkupHandler handler) throws IOException {
+        checkNotNull(handler, "The markup handler must not be null").fragment(markup);
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.anosym.nyundo.element;
+
+import java.io.IOException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Receives markup as a stream of events, in document order.
+ *
+ * The namespaces and attributes of an element must follow its {@link #startElement(java.lang.String)}, before any of
+ * its content. They have the same semantics as the corresponding methods of {@link UIElement}.
+ *
+ * @author mochieng
+ */
+public interface UIMarkupHandler {
+
+    /**
+     * Starts an element. As for {@link UIElement}, the element tag is qualified by the prefix of its target namespace,
+     * or that of its closest ancestor.
+     *
+     * @param name the unqualified name of the element
+     *
+     * @throws IOException
+     */
+    void startElement(@Nonnull final String name) throws IOException;
+
+    /**
+     * Starts an element qualified by the prefix, or unqualified if null, instead of by the prefix of its ancestors,
+     * e.g. parsed markup rendered as parsed. Its descendants inherit the prefix. The element has no target namespace,
+     * the namespaces it uses being declared by its ancestors or its own attributes.
+     *
+     * @param prefix the prefix of the element, null if unqualified
+     * @param name the unqualified name of the element
+     *
+     * @throws IOException
+     */
+    void startElement(@Nullable final String prefix, @Nonnull final String name) throws IOException;
+
+    /**
+     * Sets the target namespace of the current element, see {@link UIElement#setTargetNamespace(UINamespace)}.
+     */
+    void targetNamespace(@Nonnull final UINamespace namespace) throws IOException;
+
+    /**
+     * Declares a namespace on the current element, see {@link UIElement#declareNamespace(UINamespace)}.
+     */
+    void declareNamespace(@Nonnull final UINamespace namespace) throws IOException;
+
+    /**
+     * Adds an attribute to the current element.
+     *
+     * @param name the attribute name, qualified if required
+     * @param value the unescaped attribute value, possibly empty
+     *
+     * @throws IOException
+     */
+    void attribute(@Nonnull final String name, @Nonnull final String value) throws IOException;
+
+    /**
+     * Adds text content to the current element.
+     *
+     * @param content the unescaped text
+     *
+     * @throws IOException
+     */
+    void text(@Nonnull final String content) throws IOException;
+
+    /**
+     * Adds already serialized markup to the current element, see {@link UIFragment}.
+     *
+     * @param markup
+     *
+     * @throws IOException
+     */
+    void fragment(@Nonnull final String markup) throws IOException;
+
+    /**
+     * Ends the current element.
+     *
+     * @throws IOException
+     */
+    void endElement() throws IOException;
+}
@@ -0,0 +1,251 @@
+package com.anosym.nyundo.element;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Strings;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Writes markup events straight to the output, in the same layout as {@link UIElement#renderTo(Appendable, int,
+ * UIRenderMode)}.
+ *
+ * Only the open elements, and the namespaces and attributes of the element being started, are held. The memory used is
+ * therefore bound by the depth of the markup, not by its size.
+ *
+ * @author mochieng
+ */
+public final class UIMarkupSerializer implements UIMarkupHandler, Flushable {
+
+    private static final int SPACING_MARGIN = 4;
+
+    private final Appendable out;
+    private final int spacing;
+    private final UIRenderMode mode;
+    /**
+     * The qualified tags and namespace prefixes of the open elements, by depth.
+     */
+    private UIName[] tags = new UIName[16];
+    private String[] xmlns = new String[16];
+    private int depth;
+    /**
+     * The element started, whose open tag has not been written yet.
+     */
+    private String pendingName;
+    /**
+     * Whether the pending element is qualified by {@link #pendingPrefix}, see
+     * {@link #startElement(java.lang.String, java.lang.String)}.
+     */
+    private boolean pendingPrefixed;
+    private String pendingPrefix;
+    private UINamespace pendingTargetNamespace;
+    private final List<UINamespace> pendingNamespaces = new ArrayList<>(2);
+    /**
+     * The attributes of the pending element, sorted by name as by {@link UIElement}.
+     */
+    private String[] attributeNames = new String[8];
+    private String[] attributeValues = new String[8];
+    private int attributeCount;
+
+    public UIMarkupSerializer(@Nonnull final Appendable out, final int spacing, @Nonnull final UIRenderMode mode) {
+        checkArgument(spacing >= 0, "The spacing must not be negative");
+
+        this.out = checkNotNull(out, "The appendable must not be null");
+        this.spacing = spacing;
+        this.mode = checkNotNull(mode, "The render mode must not be null");
+    }
+
+    public UIMarkupSerializer(@Nonnull final Appendable out, @Nonnull final UIRenderMode mode) {
+        this(out, 0, mode);
+    }
+
+    /**
+     * The number of open elements.
+     *
+     * @return
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    @Override
+    public void startElement(@Nonnull final String name) throws IOException {
+        checkArgument(!Strings.isNullOrEmpty(name), "The element name must not be null or empty");
+
+        writePendingStart(false);
+        if (depth == tags.length) {
+            tags = Arrays.copyOf(tags, depth * 2);
+            xmlns = Arrays.copyOf(xmlns, depth * 2);
+        }
+        depth++;
+        pendingName = name;
+    }
+
+    @Override
+    public void startElement(@Nullable final String prefix, @Nonnull final String name) throws IOException {
+        startElement(name);
+        pendingPrefixed = true;
+        pendingPrefix = prefix;
+    }
+
+    @Override
+    public void targetNamespace(@Nonnull final UINamespace namespace) throws IOException {
+        checkNotNull(namespace, "targetNamespace must not be null");
+        checkPending();
+        checkState(!pendingPrefixed, "An element qualified by its own prefix has no target namespace");
+
+        pendingNamespaces.remove(pendingTargetNamespace);
+        declareNamespace(namespace);
+        pendingTargetNamespace = namespace;
+    }
+
+    @Override
+    public void declareNamespace(@Nonnull final UINamespace namespace) throws IOException {
+        checkNotNull(namespace, "Namespace must not be null");
+        checkPending();
+        checkArgument(!Objects.equal(pendingTargetNamespace, namespace), "Specified namespace is the targetnamespace for this element");
+        checkState(!pendingNamespaces.contains(namespace), "Specified namespace is already declared on this element");
+
+        pendingNamespaces.add(namespace);
+    }
+
+    @Override
+    public void attribute(@Nonnull final String name, @Nonnull final String value) throws IOException {
+        checkArgument(!Strings.isNullOrEmpty(name), "The attribute name must be specified");
+        checkNotNull(value, "the attribute value must not be null");
+        checkPending();
+
+        int insertion = attributeCount;
+        while (insertion > 0) {
+            final int comparison = attributeNames[insertion - 1].compareToIgnoreCase(name);
+            checkState(comparison != 0, "Duplicate attribute definition: %s", name);
+            if (comparison < 0) {
+                break;
+            }
+            insertion--;
+        }
+        if (attributeCount == attributeNames.length) {
+            attributeNames = Arrays.copyOf(attributeNames, attributeCount * 2);
+            attributeValues = Arrays.copyOf(attributeValues, attributeCount * 2);
+        }
+        System.arraycopy(attributeNames, insertion, attributeNames, insertion + 1, attributeCount - insertion);
+        System.arraycopy(attributeValues, insertion, attributeValues, insertion + 1, attributeCount - insertion);
+        attributeNames[insertion] = name;
+        attributeValues[insertion] = value;
+        attributeCount++;
+    }
+
+    @Override
+    public void text(@Nonnull final String content) throws IOException {
+        checkNotNull(content, "UIText content must not be null");
+        checkState(depth > 0, "Text content requires a parent element");
+
+        writePendingStart(false);
+        UIXmlEscaper.escapeText(out, content);
+    }
+
+    @Override
+    public void fragment(@Nonnull final String markup) throws IOException {
+        checkNotNull(markup, "The fragment markup must not be null");
+
+        writePendingStart(false);
+        mode.indent(out, spacing(depth));
+        out.append(markup);
+        mode.newLine(out);
+    }
+
+    @Override
+    public void endElement() throws IOException {
+        checkState(depth > 0, "There is no element to end");
+
+        if (pendingName != null) {
+            writePendingStart(true);
+        } else {
+            final int elementSpacing = spacing(depth - 1);
+            mode.newLine(out);
+            mode.indent(out, elementSpacing);
+            tags[depth - 1].appendCloseTag(out);
+            mode.newLine(out);
+        }
+        depth--;
+        tags[depth] = null;
+        xmlns[depth] = null;
+    }
+
+    /**
+     * Flushes the output, if flushable. The open tag of an element started without content yet is not written.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void flush() throws IOException {
+        if (out instanceof Flushable) {
+            ((Flushable) out).flush();
+        }
+    }
+
+    private void checkPending() {
+        checkState(pendingName != null, "Namespaces and attributes must precede the content of their element");
+    }
+
+    private int spacing(final int elementDepth) {
+        return spacing + elementDepth * SPACING_MARGIN;
+    }
+
+    /**
+     * Writes the open tag of the pending element, if any.
+     *
+     * @param empty whether the element is ended without content
+     */
+    private void writePendingStart(final boolean empty) throws IOException {
+        if (pendingName == null) {
+            return;
+        }
+        final int index = depth - 1;
+        String prefix = null;
+        if (pendingPrefixed) {
+            prefix = pendingPrefix;
+        } else if (pendingTargetNamespace != null) {
+            prefix = pendingTargetNamespace.getXmlns();
+        } else if (index > 0) {
+            prefix = xmlns[index - 1];
+        }
+        xmlns[index] = (prefix == null || prefix.trim().isEmpty()) ? null : prefix;
+        tags[index] = UIName.of(pendingName).qualify(xmlns[index]);
+
+        mode.indent(out, spacing(index));
+        tags[index].appendOpenTag(out);
+        if (pendingTargetNamespace != null) {
+            mode.separate(out);
+            pendingTargetNamespace.renderTargetTo(out);
+        }
+        for (UINamespace namespace : pendingNamespaces) {
+            mode.separate(out);
+            namespace.renderTo(out);
+        }
+        for (int i = 0; i < attributeCount; i++) {
+            mode.separate(out);
+            UIXmlEscaper.escapeAttribute(UIName.of(attributeNames[i]).appendAttributeStart(out), attributeValues[i])
+                    .append('"');
+            attributeNames[i] = null;
+            attributeValues[i] = null;
+        }
+        out.append(empty ? "/>" : ">");
+        mode.newLine(out);
+
+        pendingName = null;
+        pendingPrefixed = false;
+        pendingPrefix = null;
+        pendingTargetNamespace = null;
+        pendingNamespaces.clear();
+        attributeCount = 0;
+    }
+}
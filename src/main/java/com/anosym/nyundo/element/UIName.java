@@ -0,0 +1,208 @@
+package com.anosym.nyundo.element;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.Strings;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * An interned markup name (tag, attribute or namespace prefix), optionally qualified by a namespace prefix.
+ *
+ * A name carries its qualified form, and the open tag, close tag and attribute forms precomputed both as strings and
+ * as UTF-8 bytes. Rendering a name is hence a single bulk copy into the output.
+ *
+ * The number of distinct names of a page is expected to be tiny compared to its number of nodes. Above
+ * {@value #MAX_INTERNED_NAMES} distinct names, new names are no longer interned. Only unqualified names are interned
+ * globally, their qualified forms are kept by the unqualified name, so that {@code of("h:div")} and
+ * {@code of("div").qualify("h")} never share an entry.
+ *
+ * @author mochieng
+ */
+public final class UIName {
+
+    private static final int MAX_INTERNED_NAMES = 8192;
+
+    private static final ConcurrentMap<String, UIName> NAMES = new ConcurrentHashMap<>();
+
+    private final String prefix;
+    private final String localName;
+    private final String qualifiedName;
+    private final byte[] encodedQualifiedName;
+    private final String openTag;
+    private final byte[] encodedOpenTag;
+    private final String closeTag;
+    private final byte[] encodedCloseTag;
+    private final String attributeStart;
+    private final byte[] encodedAttributeStart;
+    /**
+     * The qualified forms of this unqualified name, by prefix.
+     */
+    private final ConcurrentMap<String, UIName> qualifiedNames;
+    /**
+     * The last qualified form returned, saves the map lookup while rendering consecutive elements of same namespace.
+     */
+    private volatile UIName lastQualifiedName;
+
+    private UIName(@Nullable final String prefix, @Nonnull final String localName) {
+        this.prefix = prefix;
+        this.localName = localName;
+        this.qualifiedName = prefix == null ? localName : prefix + ":" + localName;
+        this.encodedQualifiedName = encode(qualifiedName);
+        this.openTag = "<" + qualifiedName;
+        this.encodedOpenTag = encode(openTag);
+        this.closeTag = "</" + qualifiedName + ">";
+        this.encodedCloseTag = encode(closeTag);
+        this.attributeStart = qualifiedName + "=\"";
+        this.encodedAttributeStart = encode(attributeStart);
+        this.qualifiedNames = prefix == null ? new ConcurrentHashMap<String, UIName>(2) : null;
+    }
+
+    /**
+     * Returns the interned unqualified name.
+     *
+     * @param localName
+     *
+     * @return
+     */
+    @Nonnull
+    public static UIName of(@Nonnull final String localName) {
+        checkArgument(!Strings.isNullOrEmpty(localName), "The markup name must not be null or empty");
+
+        final UIName name = NAMES.get(localName);
+        if (name != null) {
+            return name;
+        }
+        final UIName newName = new UIName(null, localName);
+        if (NAMES.size() >= MAX_INTERNED_NAMES) {
+            return newName;
+        }
+        final UIName existing = NAMES.putIfAbsent(localName, newName);
+        return existing != null ? existing : newName;
+    }
+
+    /**
+     * Returns the interned name, qualified by the prefix if not null or empty.
+     *
+     * @param prefix
+     * @param localName
+     *
+     * @return
+     */
+    @Nonnull
+    public static UIName of(@Nullable final String prefix, @Nonnull final String localName) {
+        return of(localName).qualify(prefix);
+    }
+
+    /**
+     * Returns the form of this name qualified by the prefix, or the unqualified name if the prefix is null or empty.
+     *
+     * @param namespacePrefix
+     *
+     * @return
+     */
+    @Nonnull
+    public UIName qualify(@Nullable final String namespacePrefix) {
+        if (qualifiedNames == null) {
+            return of(localName).qualify(namespacePrefix);
+        }
+        if (Strings.isNullOrEmpty(namespacePrefix)) {
+            return this;
+        }
+        final UIName last = lastQualifiedName;
+        if (last != null && last.prefix.equals(namespacePrefix)) {
+            return last;
+        }
+        UIName name = qualifiedNames.get(namespacePrefix);
+        if (name == null) {
+            final UIName newName = new UIName(namespacePrefix, localName);
+            name = qualifiedNames.putIfAbsent(namespacePrefix, newName);
+            if (name == null) {
+                name = newName;
+            }
+        }
+        lastQualifiedName = name;
+        return name;
+    }
+
+    @Nullable
+    public String getPrefix() {
+        return prefix;
+    }
+
+    @Nonnull
+    public String getLocalName() {
+        return localName;
+    }
+
+    @Nonnull
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    /**
+     * Appends the qualified name.
+     *
+     * @param out
+     *
+     * @return
+     *
+     * @throws IOException
+     */
+    @Nonnull
+    public Appendable appendTo(@Nonnull final Appendable out) throws IOException {
+        return append(out, qualifiedName, encodedQualifiedName);
+    }
+
+    /**
+     * Appends {@code <qualifiedName}.
+     */
+    @Nonnull
+    public Appendable appendOpenTag(@Nonnull final Appendable out) throws IOException {
+        return append(out, openTag, encodedOpenTag);
+    }
+
+    /**
+     * Appends {@code </qualifiedName>}.
+     */
+    @Nonnull
+    public Appendable appendCloseTag(@Nonnull final Appendable out) throws IOException {
+        return append(out, closeTag, encodedCloseTag);
+    }
+
+    /**
+     * Appends {@code qualifiedName="}.
+     */
+    @Nonnull
+    public Appendable appendAttributeStart(@Nonnull final Appendable out) throws IOException {
+        return append(out, attributeStart, encodedAttributeStart);
+    }
+
+    @Nonnull
+    byte[] getEncodedQualifiedName() {
+        return encodedQualifiedName;
+    }
+
+    @Override
+    public String toString() {
+        return qualifiedName;
+    }
+
+    @Nonnull
+    private static Appendable append(@Nonnull final Appendable out, @Nonnull final String value, @Nonnull final byte[] encoded)
+            throws IOException {
+        if (out instanceof UIUtf8Output) {
+            return ((UIUtf8Output) out).appendEncoded(encoded);
+        }
+        return out.append(value);
+    }
+
+    @Nonnull
+    private static byte[] encode(@Nonnull final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -6,6 +6,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.anosym.nyundo.UIStringable;
 import com.google.common.base.Strings;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -27,6 +29,17 @@ public final class UINamespace extends UIStringable implements UIRepresentable {
     private final String uri;
     private final FormDefault elementFormDefault;
     private final FormDefault attributeFormDefault;
+    private final transient String declarationName;
+    /**
+     * The rendered declaration, {@code xmlns:prefix="uri"}, computed once as it is rendered on every declaring element.
+     */
+    private final transient String declaration;
+    private final transient byte[] encodedDeclaration;
+    /**
+     * The rendered target attribute, {@code targetNamespace="uri"}.
+     */
+    private final transient String target;
+    private final transient byte[] encodedTarget;
 
     public UINamespace(@Nullable final String xmlns, @Nonnull final String uri,
             @Nonnull final FormDefault elementFormDefault, @Nonnull final FormDefault attributeFormDefault) {
@@ -42,6 +55,11 @@ public final class UINamespace extends UIStringable implements UIRepresentable {
         this.uri = uri;
         this.elementFormDefault = elementFormDefault;
         this.attributeFormDefault = attributeFormDefault;
+        this.declarationName = Strings.isNullOrEmpty(xmlns) ? "xmlns" : UIName.of("xmlns", xmlns).getQualifiedName();
+        this.declaration = quote(declarationName, uri);
+        this.encodedDeclaration = declaration.getBytes(StandardCharsets.UTF_8);
+        this.target = quote("targetNamespace", uri);
+        this.encodedTarget = target.getBytes(StandardCharsets.UTF_8);
     }
 
     public UINamespace(@NotNull final String uri, final String xmlns) {
@@ -56,6 +74,16 @@ public final class UINamespace extends UIStringable implements UIRepresentable {
         return uri;
     }
 
+    /**
+     * The name of the attribute declaring this namespace, {@code xmlns:prefix}, or {@code xmlns} without prefix.
+     *
+     * @return
+     */
+    @Nonnull
+    public String getDeclarationName() {
+        return declarationName;
+    }
+
     public boolean isElementQualified() {
         return elementFormDefault == FormDefault.QUALIFIED;
     }
@@ -85,11 +113,50 @@ public final class UINamespace extends UIStringable implements UIRepresentable {
 
     @Override
     public Appendable renderXml(final int leadingSpacing) {
-        final StringBuilder namespace = attachSpacing(new StringBuilder(), leadingSpacing).append("xmlns");
-        if (this.xmlns != null) {
-            namespace.append(":").append(this.xmlns);
+        return UIUtil.renderXml(this, leadingSpacing);
+    }
+
+    @Override
+    public void renderTo(@Nonnull final Appendable out) throws IOException {
+        renderTo(out, 0);
+    }
+
+    @Override
+    public void renderTo(@Nonnull final Appendable out, final int leadingSpacing) throws IOException {
+        attachSpacing(out, leadingSpacing);
+        append(out, declaration, encodedDeclaration);
+    }
+
+    /**
+     * Renders the attribute targeting this namespace, {@code targetNamespace="uri"}.
+     *
+     * @param out
+     *
+     * @throws IOException
+     */
+    public void renderTargetTo(@Nonnull final Appendable out) throws IOException {
+        append(out, target, encodedTarget);
+    }
+
+    private static void append(@Nonnull final Appendable out, @Nonnull final String value, @Nonnull final byte[] encoded)
+            throws IOException {
+        if (out instanceof UIUtf8Output) {
+            ((UIUtf8Output) out).appendEncoded(encoded);
+        } else {
+            out.append(value);
+        }
+    }
+
+    @Nonnull
+    private static String quote(@Nonnull final String name, @Nonnull final String uri) {
+        final StringBuilder attribute = new StringBuilder(name.length() + uri.length() + 3);
+        try {
+            UIXmlEscaper.escapeAttribute(UIName.of(name).appendAttributeStart(attribute), uri).append('"');
+        } catch (IOException ex) {
+            //StringBuilder never throws.
+            throw new IllegalStateException(ex);
         }
-        return namespace.append("=").append(uri);
+        return attribute.toString();
     }
 
 }
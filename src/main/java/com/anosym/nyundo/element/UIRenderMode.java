@@ -0,0 +1,65 @@
+package com.anosym.nyundo.element;
+
+import static com.anosym.nyundo.element.UIUtil.attachSpacing;
+
+import java.io.IOException;
+import javax.annotation.Nonnull;
+
+/**
+ * Controls the whitespace emitted while rendering {@link UIElement}s.
+ *
+ * @author mochieng
+ */
+public enum UIRenderMode {
+
+    /**
+     * Indents nested elements and places every element on its own line. Meant for debugging.
+     */
+    PRETTY {
+
+        @Override
+        void indent(@Nonnull final Appendable out, final int spacing) throws IOException {
+            attachSpacing(out, spacing);
+        }
+
+        @Override
+        void separate(@Nonnull final Appendable out) throws IOException {
+            attachSpacing(out, 2);
+        }
+
+        @Override
+        void newLine(@Nonnull final Appendable out) throws IOException {
+            out.append('\n');
+        }
+    },
+    /**
+     * Emits no indentation nor newlines. Meant for production.
+     */
+    COMPACT {
+
+        @Override
+        void indent(@Nonnull final Appendable out, final int spacing) {
+        }
+
+        @Override
+        void separate(@Nonnull final Appendable out) throws IOException {
+            out.append(' ');
+        }
+
+        @Override
+        void newLine(@Nonnull final Appendable out) {
+        }
+    };
+
+    /**
+     * Appends the leading spacing for an element.
+     */
+    abstract void indent(@Nonnull final Appendable out, final int spacing) throws IOException;
+
+    /**
+     * Appends the spacing between an element name and its attributes, or between attributes.
+     */
+    abstract void separate(@Nonnull final Appendable out) throws IOException;
+
+    abstract void newLine(@Nonnull final Appendable out) throws IOException;
+}
@@ -1,5 +1,8 @@
 package com.anosym.nyundo.element;
 
+import java.io.IOException;
+import javax.annotation.Nonnull;
+
 /**
  *
  * @author mochieng
@@ -14,4 +17,25 @@ public interface UIRepresentable {
      * @return
      */
     Appendable renderXml(final int leadingSpacing);
+
+    /**
+     * Streams the xml of this representable into the specified output.
+     *
+     * Every fragment is written exactly once into the output, no intermediate buffers are created.
+     *
+     * @param out
+     *
+     * @throws IOException if the output fails
+     */
+    void renderTo(@Nonnull final Appendable out) throws IOException;
+
+    /**
+     * Streams the xml of this representable into the specified output, with the specified leading spacing.
+     *
+     * @param out
+     * @param leadingSpacing
+     *
+     * @throws IOException if the output fails
+     */
+    void renderTo(@Nonnull final Appendable out, final int leadingSpacing) throws IOException;
 }
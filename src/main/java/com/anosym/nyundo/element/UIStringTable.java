@@ -0,0 +1,59 @@
+package com.anosym.nyundo.element;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * Assigns a stable int id to every distinct string added to it. Not thread-safe.
+ *
+ * @author mochieng
+ */
+public final class UIStringTable {
+
+    private final Map<String, Integer> ids;
+    private String[] strings;
+    private int size;
+
+    public UIStringTable() {
+        this.ids = new HashMap<>();
+        this.strings = new String[16];
+    }
+
+    /**
+     * Returns the id of the string, adding it if not yet known.
+     *
+     * @param string
+     *
+     * @return
+     */
+    public int add(@Nonnull final String string) {
+        checkNotNull(string, "The string must not be null");
+
+        final Integer id = ids.get(string);
+        if (id != null) {
+            return id;
+        }
+        if (size == strings.length) {
+            strings = Arrays.copyOf(strings, size * 2);
+        }
+        strings[size] = string;
+        ids.put(string, size);
+        return size++;
+    }
+
+    @Nonnull
+    public String get(final int id) {
+        checkElementIndex(id, size, "string id");
+
+        return strings[id];
+    }
+
+    public int size() {
+        return size;
+    }
+}
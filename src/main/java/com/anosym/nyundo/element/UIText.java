@@ -2,11 +2,11 @@ package com.anosym.nyundo.element;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.util.Objects;
+import java.io.IOException;
 import javax.annotation.Nonnull;
 
 /**
- * Extends UIElement as a convenience.
+ * Extends UIElement as a convenience. The content is escaped when rendered.
  *
  * @author mochieng
  */
@@ -26,7 +26,18 @@ public final class UIText extends UIElement {
 
     @Override
     public Appendable renderXml(int spacing) {
-        return new StringBuilder(Objects.toString(content, ""));
+        return UIUtil.renderXml(this, spacing);
+    }
+
+    @Override
+    public void renderTo(@Nonnull final Appendable out, final int spacing, @Nonnull final UIRenderMode mode)
+            throws IOException {
+        UIXmlEscaper.escapeText(out, content);
+    }
+
+    @Override
+    public void emitTo(@Nonnull final UIMarkupHandler handler) throws IOException {
+        checkNotNull(handler, "The markup handler must not be null").text(content);
     }
 
 }
@@ -0,0 +1,223 @@
+package com.anosym.nyundo.element;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * An {@link Appendable} which encodes the rendered xml directly into UTF-8 bytes within a pooled {@link ByteBuffer},
+ * draining the buffer to the target channel whenever it fills up.
+ *
+ * Markup names (tags, namespace prefixes and attribute names) are written from the UTF-8 bytes precomputed by their
+ * {@link UIName}.
+ *
+ * <pre>
+ *  <code>
+ *   try (UIUtf8Output out = new UIUtf8Output(response.getOutputStream())) {
+ *      element.renderTo(out);
+ *   }
+ *  </code>
+ * </pre>
+ *
+ * The buffer bounds the size of every chunk written to the channel. Writes block on a slow channel, hence a slow
+ * consumer holds back the render rather than letting output accumulate. The channel must therefore be blocking: a
+ * non-blocking {@link SelectableChannel} is rejected, as draining into it would spin until the client reads.
+ *
+ * The output does not close the underlying channel, closing only returns the buffer to its pool.
+ *
+ * @author mochieng
+ */
+public final class UIUtf8Output implements Appendable, Flushable, Closeable {
+
+    private final WritableByteChannel channel;
+    /**
+     * The output stream (or flushable channel) flushed along with the buffer.
+     */
+    private final Flushable flushTarget;
+    private final UIByteBufferPool bufferPool;
+    private ByteBuffer buffer;
+    /**
+     * A high surrogate whose low surrogate has not yet been appended.
+     */
+    private char pendingHighSurrogate;
+
+    public UIUtf8Output(@Nonnull final WritableByteChannel channel, @Nonnull final UIByteBufferPool bufferPool) {
+        this(channel, channel instanceof Flushable ? (Flushable) channel : null, bufferPool);
+    }
+
+    private UIUtf8Output(@Nonnull final WritableByteChannel channel, @Nullable final Flushable flushTarget,
+            @Nonnull final UIByteBufferPool bufferPool) {
+        this.channel = checkNotNull(channel, "The channel must not be null");
+        checkArgument(!(channel instanceof SelectableChannel) || ((SelectableChannel) channel).isBlocking(),
+                "The channel must be in blocking mode");
+        this.flushTarget = flushTarget;
+        this.bufferPool = checkNotNull(bufferPool, "The buffer pool must not be null");
+        this.buffer = bufferPool.acquire();
+    }
+
+    public UIUtf8Output(@Nonnull final WritableByteChannel channel) {
+        this(channel, UIByteBufferPool.getDefault());
+    }
+
+    public UIUtf8Output(@Nonnull final OutputStream outputStream, @Nonnull final UIByteBufferPool bufferPool) {
+        this(Channels.newChannel(checkNotNull(outputStream, "The output stream must not be null")), outputStream, bufferPool);
+    }
+
+    public UIUtf8Output(@Nonnull final OutputStream outputStream) {
+        this(outputStream, UIByteBufferPool.getDefault());
+    }
+
+    /**
+     * Appends a markup name, using its cached UTF-8 encoding.
+     *
+     * @param name
+     *
+     * @return
+     *
+     * @throws IOException
+     */
+    public UIUtf8Output appendName(@Nonnull final String name) throws IOException {
+        return appendEncoded(UIName.of(name).getEncodedQualifiedName());
+    }
+
+    /**
+     * Appends bytes which are already UTF-8 encoded.
+     *
+     * @param encoded
+     *
+     * @return
+     *
+     * @throws IOException
+     */
+    public UIUtf8Output appendEncoded(@Nonnull final byte[] encoded) throws IOException {
+        checkOpen();
+        int offset = 0;
+        while (offset < encoded.length) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            final int length = Math.min(buffer.remaining(), encoded.length - offset);
+            buffer.put(encoded, offset, length);
+            offset += length;
+        }
+        return this;
+    }
+
+    @Override
+    public UIUtf8Output append(final CharSequence csq) throws IOException {
+        final CharSequence sequence = csq == null ? "null" : csq;
+        return append(sequence, 0, sequence.length());
+    }
+
+    @Override
+    public UIUtf8Output append(final CharSequence csq, final int start, final int end) throws IOException {
+        final CharSequence sequence = csq == null ? "null" : csq;
+        checkOpen();
+        for (int i = start; i < end; i++) {
+            final char c = sequence.charAt(i);
+            //Ascii runs go straight into the buffer.
+            if (c < 0x80 && pendingHighSurrogate == 0 && buffer.hasRemaining()) {
+                buffer.put((byte) c);
+            } else {
+                append(c);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public UIUtf8Output append(final char c) throws IOException {
+        checkOpen();
+        if (buffer.remaining() < 4) {
+            drain();
+        }
+        if (pendingHighSurrogate != 0) {
+            final char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                final int codePoint = Character.toCodePoint(high, c);
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                return this;
+            }
+            //Unpaired surrogate, same replacement as String.getBytes
+            buffer.put((byte) '?');
+        }
+        if (c < 0x80) {
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            buffer.put((byte) (0xC0 | (c >> 6)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c)) {
+            pendingHighSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buffer.put((byte) '?');
+        } else {
+            buffer.put((byte) (0xE0 | (c >> 12)));
+            buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+        return this;
+    }
+
+    /**
+     * Writes all buffered bytes to the channel, and flushes the underlying output stream if any.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void flush() throws IOException {
+        checkOpen();
+        drain();
+        if (flushTarget != null) {
+            flushTarget.flush();
+        }
+    }
+
+    /**
+     * Flushes the buffered bytes and returns the buffer to its pool. The channel itself is left open.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            if (pendingHighSurrogate != 0) {
+                pendingHighSurrogate = 0;
+                buffer.put((byte) '?');
+            }
+            drain();
+        } finally {
+            bufferPool.release(buffer);
+            buffer = null;
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void checkOpen() {
+        checkState(buffer != null, "The output has already been closed");
+    }
+}
@@ -2,6 +2,8 @@ package com.anosym.nyundo.element;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.base.Strings;
+import java.io.IOException;
 import javax.annotation.Nonnull;
 
 /**
@@ -10,6 +12,18 @@ import javax.annotation.Nonnull;
  */
 public final class UIUtil {
 
+    private static final int MAX_CACHED_SPACING = 128;
+    /**
+     * Precomputed spacing strings, indexed by their length.
+     */
+    private static final String[] SPACINGS = new String[MAX_CACHED_SPACING + 1];
+
+    static {
+        for (int spacing = 0; spacing <= MAX_CACHED_SPACING; spacing++) {
+            SPACINGS[spacing] = Strings.repeat(" ", spacing);
+        }
+    }
+
     private UIUtil() {
     }
 
@@ -17,9 +31,62 @@ public final class UIUtil {
     public static StringBuilder attachSpacing(@Nonnull final StringBuilder xmlAppendable, final int spacingCount) {
         checkNotNull(xmlAppendable, "The xml appendable must not be null");
 
-        for (int space = 0; space < spacingCount; space++) {
-            xmlAppendable.append(" ");
+        int remaining = spacingCount;
+        while (remaining > 0) {
+            final int spacing = Math.min(remaining, MAX_CACHED_SPACING);
+            xmlAppendable.append(SPACINGS[spacing]);
+            remaining -= spacing;
         }
         return xmlAppendable;
     }
+
+    @Nonnull
+    public static Appendable attachSpacing(@Nonnull final Appendable xmlAppendable, final int spacingCount) throws IOException {
+        checkNotNull(xmlAppendable, "The xml appendable must not be null");
+
+        int remaining = spacingCount;
+        while (remaining > 0) {
+            final int spacing = Math.min(remaining, MAX_CACHED_SPACING);
+            xmlAppendable.append(SPACINGS[spacing]);
+            remaining -= spacing;
+        }
+        return xmlAppendable;
+    }
+
+    /**
+     * Appends a markup name (tag, namespace prefix or attribute name), through its interned {@link UIName}.
+     *
+     * @param xmlAppendable
+     * @param name
+     *
+     * @return
+     *
+     * @throws IOException
+     */
+    @Nonnull
+    public static Appendable appendName(@Nonnull final Appendable xmlAppendable, @Nonnull final String name) throws IOException {
+        return UIName.of(name).appendTo(xmlAppendable);
+    }
+
+    /**
+     * Renders the representable into a new {@link StringBuilder}.
+     *
+     * @param representable
+     * @param leadingSpacing
+     *
+     * @return
+     */
+    @Nonnull
+    public static StringBuilder renderXml(@Nonnull final UIRepresentable representable, final int leadingSpacing) {
+        checkNotNull(representable, "The representable must not be null");
+
+        final StringBuilder xml = new StringBuilder();
+        try {
+            representable.renderTo(xml, leadingSpacing);
+        } catch (IOException ex) {
+            //StringBuilder never throws.
+            throw new IllegalStateException(ex);
+        }
+        return xml;
+    }
 }
@@ -0,0 +1,149 @@
+package com.anosym.nyundo.element;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+import java.io.IOException;
+import javax.annotation.Nonnull;
+
+/**
+ * Escapes attribute values and text content while writing them to the output.
+ *
+ * The value is scanned for characters requiring escape through a lookup table, and the runs in between are copied to
+ * the output in bulk. A value which requires no escape is therefore copied as-is, without any allocation.
+ *
+ * @author mochieng
+ */
+public final class UIXmlEscaper {
+
+    /**
+     * The replacements for characters in text content, indexed by character. Null for characters which are copied.
+     */
+    private static final String[] TEXT_ESCAPES = new String['>' + 1];
+    /**
+     * The replacements for characters in attribute values. Whitespaces other than the space are escaped, as they would
+     * otherwise be normalized by the xml parser.
+     */
+    private static final String[] ATTRIBUTE_ESCAPES = new String['>' + 1];
+
+    static {
+        TEXT_ESCAPES['&'] = "&amp;";
+        TEXT_ESCAPES['<'] = "&lt;";
+        TEXT_ESCAPES['>'] = "&gt;";
+        System.arraycopy(TEXT_ESCAPES, 0, ATTRIBUTE_ESCAPES, 0, TEXT_ESCAPES.length);
+        ATTRIBUTE_ESCAPES['"'] = "&quot;";
+        ATTRIBUTE_ESCAPES['\t'] = "&#9;";
+        ATTRIBUTE_ESCAPES['\n'] = "&#10;";
+        ATTRIBUTE_ESCAPES['\r'] = "&#13;";
+    }
+
+    private UIXmlEscaper() {
+    }
+
+    /**
+     * Appends the text content, escaping markup characters.
+     *
+     * @param out
+     * @param text
+     *
+     * @return
+     *
+     * @throws IOException
+     */
+    @Nonnull
+    public static Appendable escapeText(@Nonnull final Appendable out, @Nonnull final CharSequence text)
+            throws IOException {
+        return escape(out, text, TEXT_ESCAPES);
+    }
+
+    /**
+     * Appends the attribute value, escaping markup characters, quotes and whitespaces other than the space.
+     *
+     * @param out
+     * @param value
+     *
+     * @return
+     *
+     * @throws IOException
+     */
+    @Nonnull
+    public static Appendable escapeAttribute(@Nonnull final Appendable out, @Nonnull final CharSequence value)
+            throws IOException {
+        return escape(out, value, ATTRIBUTE_ESCAPES);
+    }
+
+    /**
+     * Appends the text content between the start (inclusive) and end (exclusive) indices, escaping markup characters.
+     *
+     * @param out
+     * @param text
+     * @param start
+     * @param end
+     *
+     * @return
+     *
+     * @throws IOException
+     */
+    @Nonnull
+    public static Appendable escapeText(@Nonnull final Appendable out, @Nonnull final CharSequence text, final int start,
+            final int end) throws IOException {
+        checkNotNull(text, "The value to escape must not be null");
+        checkPositionIndexes(start, end, text.length());
+
+        return escape(out, text, start, end, TEXT_ESCAPES);
+    }
+
+    /**
+     * Appends the attribute value between the start (inclusive) and end (exclusive) indices, see
+     * {@link #escapeAttribute(java.lang.Appendable, java.lang.CharSequence)}.
+     *
+     * @param out
+     * @param value
+     * @param start
+     * @param end
+     *
+     * @return
+     *
+     * @throws IOException
+     */
+    @Nonnull
+    public static Appendable escapeAttribute(@Nonnull final Appendable out, @Nonnull final CharSequence value,
+            final int start, final int end) throws IOException {
+        checkNotNull(value, "The value to escape must not be null");
+        checkPositionIndexes(start, end, value.length());
+
+        return escape(out, value, start, end, ATTRIBUTE_ESCAPES);
+    }
+
+    @Nonnull
+    private static Appendable escape(@Nonnull final Appendable out, @Nonnull final CharSequence value,
+            @Nonnull final String[] escapes) throws IOException {
+        checkNotNull(value, "The value to escape must not be null");
+
+        return escape(out, value, 0, value.length(), escapes);
+    }
+
+    @Nonnull
+    private static Appendable escape(@Nonnull final Appendable out, @Nonnull final CharSequence value,
+            final int begin, final int end, @Nonnull final String[] escapes) throws IOException {
+        checkNotNull(out, "The appendable must not be null");
+
+        int start = begin;
+        for (int i = begin; i < end; i++) {
+            final char c = value.charAt(i);
+            if (c < escapes.length && escapes[c] != null) {
+                if (start < i) {
+                    out.append(value, start, i);
+                }
+                out.append(escapes[c]);
+                start = i + 1;
+            }
+        }
+        if (start == 0 && end == value.length()) {
+            out.append(value);
+        } else if (start < end) {
+            out.append(value, start, end);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,201 @@
+package com.anosym.nyundo.parser;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.anosym.nyundo.component.UIAttributeBinder;
+import com.anosym.nyundo.component.UIComponent;
+import com.anosym.nyundo.renderer.UIRendererRegistry;
+import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Maps;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Parses an xml (or xhtml) page into its component tree, in a single streaming pass.
+ *
+ * Every element whose namespace and name designate a registered {@link com.anosym.nyundo.annotation.Component} becomes
+ * an instance of that component, created through its public no-arg constructor. Its {@code id} attribute becomes its
+ * simple id, and its other attributes are set through {@link UIAttributeBinder#setAttribute(UIComponent, String,
+ * String)}. Any other element becomes an {@link UIMarkupComponent}, and text an {@link UITextComponent}, both rendered
+ * back as parsed: elements keep their source namespace and prefix, even within a component qualified by another
+ * prefix. Whitespace-only text is kept within such elements, and dropped directly within components, whose
+ * renderers lay out their children. Comments and processing instructions are dropped.
+ *
+ * <pre>
+ *  <code>
+ *   &lt;html xmlns:n="http://nyundo.anosym.com/components"&gt;
+ *     &lt;body&gt;
+ *       &lt;n:nextButton id="next" name="Next" action="/step/2"/&gt;
+ *     &lt;/body&gt;
+ *   &lt;/html&gt;
+ *  </code>
+ * </pre>
+ *
+ * Sibling components must have distinct ids, a duplicate id failing the parse.
+ *
+ * @author mochieng
+ */
+public final class UIComponentParser {
+
+    private static final String ID_ATTRIBUTE = "id";
+
+    private static final ClassValue<MethodHandle> CONSTRUCTORS = new ClassValue<MethodHandle>() {
+
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            try {
+                return MethodHandles.publicLookup().findConstructor(type, MethodType.methodType(void.class))
+                        .asType(MethodType.methodType(UIComponent.class));
+            } catch (NoSuchMethodException | IllegalAccessException ex) {
+                throw new IllegalStateException("The component (" + type + ") must define a public no-arg constructor", ex);
+            }
+        }
+    };
+
+    private final UIRendererRegistry rendererRegistry;
+    private final XMLInputFactory inputFactory;
+
+    public UIComponentParser(@Nonnull final UIRendererRegistry rendererRegistry) {
+        this.rendererRegistry = checkNotNull(rendererRegistry, "The renderer registry must not be null");
+        this.inputFactory = XMLInputFactory.newInstance();
+        this.inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        this.inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    @Nonnull
+    public UIComponent parse(@Nonnull final InputStream in) throws XMLStreamException {
+        checkNotNull(in, "The input must not be null");
+
+        return parse(inputFactory.createXMLStreamReader(in));
+    }
+
+    @Nonnull
+    public UIComponent parse(@Nonnull final Reader in) throws XMLStreamException {
+        checkNotNull(in, "The input must not be null");
+
+        return parse(inputFactory.createXMLStreamReader(in));
+    }
+
+    @Nonnull
+    private UIComponent parse(@Nonnull final XMLStreamReader reader) throws XMLStreamException {
+        final Deque<UIComponent> components = new ArrayDeque<>();
+        UIComponent rootComponent = null;
+        try {
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        final UIComponent component = createComponent(reader);
+                        if (components.isEmpty()) {
+                            rootComponent = component;
+                        } else {
+                            addChild(components.peek(), component, reader);
+                        }
+                        components.push(component);
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        components.pop();
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                        if (!components.isEmpty()
+                                && (!reader.isWhiteSpace() || components.peek() instanceof UIMarkupComponent)) {
+                            components.peek().addChild(new UITextComponent(reader.getText()));
+                        }
+                        break;
+                    default:
+                        //Comments, processing instructions and ignorable whitespace.
+                        break;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        if (rootComponent == null) {
+            throw new XMLStreamException("The document has no root element");
+        }
+        return rootComponent;
+    }
+
+    private static void addChild(@Nonnull final UIComponent parent, @Nonnull final UIComponent child,
+            @Nonnull final XMLStreamReader reader) throws XMLStreamException {
+        if (parent.getChildren().containsKey(child.getComponentId())) {
+            throw new XMLStreamException("Duplicate sibling id: " + child.getComponentId().getSimpleId(),
+                    reader.getLocation());
+        }
+        parent.addChild(child);
+    }
+
+    @Nonnull
+    private UIComponent createComponent(@Nonnull final XMLStreamReader reader) throws XMLStreamException {
+        final String namespace = Strings.nullToEmpty(reader.getNamespaceURI());
+        final Class<? extends UIComponent> componentClass = namespace.isEmpty()
+                ? null : rendererRegistry.getComponentClass(namespace, reader.getLocalName());
+        if (componentClass == null) {
+            return createMarkupComponent(reader);
+        }
+        final UIComponent component = newComponent(componentClass);
+        final UIAttributeBinder binder = UIAttributeBinder.forClass(componentClass);
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            final String name = reader.getAttributeLocalName(i);
+            final String value = reader.getAttributeValue(i);
+            if (ID_ATTRIBUTE.equals(name)) {
+                component.setId(value);
+            } else {
+                try {
+                    binder.setAttribute(component, name, value);
+                } catch (IllegalArgumentException ex) {
+                    throw new XMLStreamException(ex.getMessage(), reader.getLocation(), ex);
+                }
+            }
+        }
+        return component;
+    }
+
+    @Nonnull
+    private static UIComponent createMarkupComponent(@Nonnull final XMLStreamReader reader) {
+        final Map<String, String> attributes = Maps.newLinkedHashMap();
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            final String prefix = reader.getNamespacePrefix(i);
+            attributes.put(Strings.isNullOrEmpty(prefix) ? "xmlns" : "xmlns:" + prefix, reader.getNamespaceURI(i));
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            attributes.put(qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+                    reader.getAttributeValue(i));
+        }
+        final UIMarkupComponent component = new UIMarkupComponent(reader.getNamespaceURI(), reader.getPrefix(),
+                reader.getLocalName(), attributes);
+        final String id = attributes.get(ID_ATTRIBUTE);
+        if (!Strings.isNullOrEmpty(id)) {
+            component.setId(id);
+        }
+        return component;
+    }
+
+    @Nonnull
+    private static String qualifiedName(final String prefix, @Nonnull final String localName) {
+        return Strings.isNullOrEmpty(prefix) ? localName : prefix + ":" + localName;
+    }
+
+    @Nonnull
+    private static UIComponent newComponent(@Nonnull final Class<? extends UIComponent> componentClass) {
+        try {
+            return (UIComponent) CONSTRUCTORS.get(componentClass).invokeExact();
+        } catch (Throwable ex) {
+            throw Throwables.propagate(ex);
+        }
+    }
+}
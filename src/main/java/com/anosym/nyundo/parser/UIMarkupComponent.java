@@ -0,0 +1,69 @@
+package com.anosym.nyundo.parser;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.anosym.nyundo.annotation.Component;
+import com.anosym.nyundo.component.UIComponent;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A parsed element which is not a component, rendered back as-is by {@link UIMarkupRenderer}.
+ *
+ * @author mochieng
+ */
+@Component(name = "element", namespace = UIMarkupRenderer.NAMESPACE)
+public final class UIMarkupComponent extends UIComponent {
+
+    private final String namespace;
+    private final String prefix;
+    private final String name;
+    private final Map<String, String> attributes;
+
+    /**
+     * @param namespace the namespace uri of the element in the source, null if none
+     * @param prefix the prefix of the element in the source, null if unqualified
+     * @param name the local name of the element
+     * @param attributes the attributes of the element, with qualified names, in source order
+     */
+    public UIMarkupComponent(@Nullable final String namespace, @Nullable final String prefix,
+            @Nonnull final String name, @Nonnull final Map<String, String> attributes) {
+        checkArgument(!Strings.isNullOrEmpty(name), "The element name must not be null or empty");
+        checkNotNull(attributes, "The element attributes must not be null");
+
+        this.namespace = Strings.emptyToNull(namespace);
+        this.prefix = Strings.emptyToNull(prefix);
+        this.name = name;
+        this.attributes = ImmutableMap.copyOf(attributes);
+    }
+
+    @Nullable
+    public String getNamespace() {
+        return namespace;
+    }
+
+    /**
+     * The prefix qualifying the element in the source, with which it is rendered whatever the prefix of the enclosing
+     * component.
+     *
+     * @return
+     */
+    @Nullable
+    public String getPrefix() {
+        return prefix;
+    }
+
+    @Nonnull
+    public String getName() {
+        return name;
+    }
+
+    @Nonnull
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+}
@@ -0,0 +1,50 @@
+package com.anosym.nyundo.parser;
+
+import com.anosym.nyundo.annotation.Renderer;
+import com.anosym.nyundo.component.UIComponent;
+import com.anosym.nyundo.element.UIElement;
+import com.anosym.nyundo.renderer.UIAbstractEventRenderer;
+import com.anosym.nyundo.renderer.UIEventContext;
+import java.io.IOException;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Renders the parsed markup which is not a component, {@link UIMarkupComponent} and {@link UITextComponent}, as it was
+ * parsed. Elements keep their source prefix, rather than inheriting the prefix of the enclosing component. Attributes
+ * with empty values are only kept when rendering to markup, see {@link com.anosym.nyundo.element.UIElementBuilder}.
+ *
+ * @author mochieng
+ */
+@Renderer(namespace = UIMarkupRenderer.NAMESPACE)
+public class UIMarkupRenderer extends UIAbstractEventRenderer {
+
+    public static final String NAMESPACE = "http://nyundo.anosym.com/markup";
+
+    @Override
+    public void render(@Nonnull final UIComponent component, @Nonnull final UIEventContext context) throws IOException {
+        if (component instanceof UITextComponent) {
+            context.text(((UITextComponent) component).getContent());
+            return;
+        }
+        final UIMarkupComponent element = (UIMarkupComponent) component;
+        context.startElement(element.getPrefix(), element.getName());
+        for (Map.Entry<String, String> attribute : element.getAttributes().entrySet()) {
+            context.attribute(attribute.getKey(), attribute.getValue());
+        }
+        for (UIComponent child : element) {
+            context.render(child);
+        }
+        context.endElement();
+    }
+
+    @Override
+    public UIElement createElement(@Nonnull final UIComponent component, @Nullable final UIElement parentElement) {
+        if (component instanceof UIMarkupComponent) {
+            final UIMarkupComponent element = (UIMarkupComponent) component;
+            return new UIElement(element.getPrefix(), element.getName(), parentElement);
+        }
+        return super.createElement(component, parentElement);
+    }
+}
@@ -0,0 +1,27 @@
+package com.anosym.nyundo.parser;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.anosym.nyundo.annotation.Component;
+import com.anosym.nyundo.component.UIComponent;
+import javax.annotation.Nonnull;
+
+/**
+ * Parsed text content, rendered back as-is by {@link UIMarkupRenderer}.
+ *
+ * @author mochieng
+ */
+@Component(name = "text", namespace = UIMarkupRenderer.NAMESPACE)
+public final class UITextComponent extends UIComponent {
+
+    private final String content;
+
+    public UITextComponent(@Nonnull final String content) {
+        this.content = checkNotNull(content, "The text content must not be null");
+    }
+
+    @Nonnull
+    public String getContent() {
+        return content;
+    }
+}
@@ -0,0 +1,145 @@
+package com.anosym.nyundo.renderer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.anosym.nyundo.annotation.Component;
+import com.anosym.nyundo.component.UIComponent;
+import com.anosym.nyundo.element.UIElement;
+import com.anosym.nyundo.element.UIElementBuilder;
+import com.anosym.nyundo.element.UINamespace;
+import com.anosym.nyundo.util.UIRendererUtil;
+import java.io.IOException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Base of {@link UIEventRenderer}s, which only have to emit the events of their components.
+ *
+ * @author mochieng
+ */
+public abstract class UIAbstractEventRenderer implements UIEventRenderer {
+
+    /**
+     * Builds the element of the component from its events, within the current element of the context. Child components
+     * are rendered through the context, their elements being moved within the element being built.
+     *
+     * The render contexts of this library build the elements of event renderers themselves, this method serves any other
+     * caller of the renderer.
+     */
+    @Override
+    public final UIElement render(@Nonnull final UIComponent component, @Nonnull final UIRendererContext context) {
+        checkNotNull(component, "Component to render must not be null");
+        checkNotNull(context, "The render context must not be null");
+
+        final UIElementBuilder builder = new UIElementBuilder(context.getCurrentElement());
+        try {
+            render(component, new ElementContext(component, context, builder));
+        } catch (IOException ex) {
+            //Building elements never throws.
+            throw new IllegalStateException(ex);
+        }
+        return builder.getFirstElement();
+    }
+
+    /**
+     * Creates an element named after the component. Used as the ancestor element of a rendered subtree, see
+     * {@link UIRenderSession#renderSubtree(UIComponent, java.lang.String)}.
+     */
+    @Override
+    public UIElement createElement(@Nonnull final UIComponent component, @Nullable final UIElement parentElement) {
+        final Class<? extends UIComponent> componentClass = component.getClass();
+        return new UIElement(UIRendererUtil.getComponentName(componentClass, componentClass.getAnnotation(Component.class)),
+                parentElement);
+    }
+
+    /**
+     * Adapts an element render context to the events of the renderer.
+     */
+    private static final class ElementContext implements UIEventContext {
+
+        private final UIComponent component;
+        private final UIRendererContext context;
+        private final UIElementBuilder builder;
+
+        private ElementContext(@Nonnull final UIComponent component, @Nonnull final UIRendererContext context,
+                @Nonnull final UIElementBuilder builder) {
+            this.component = component;
+            this.context = context;
+            this.builder = builder;
+        }
+
+        @Override
+        public UIComponent getCurrentComponent() {
+            return component;
+        }
+
+        @Override
+        public UIComponent getRootComponent() {
+            return context.getRootComponent();
+        }
+
+        @Override
+        public UIComponent findComponent(@Nonnull final String id) {
+            checkNotNull(id, "Component id must not be null");
+
+            return component.findComponent(id);
+        }
+
+        @Override
+        public void render(@Nonnull final UIComponent child) {
+            final UIElement element = context.render(child);
+            final UIElement currentElement = builder.getCurrentElement();
+            if (element != null && currentElement != null && element.getParentElement() != currentElement) {
+                element.detach();
+                currentElement.appendChild(element);
+            }
+        }
+
+        /**
+         * Nothing is written while building elements.
+         */
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void startElement(@Nonnull final String name) {
+            builder.startElement(name);
+        }
+
+        @Override
+        public void startElement(@Nullable final String prefix, @Nonnull final String name) {
+            builder.startElement(prefix, name);
+        }
+
+        @Override
+        public void targetNamespace(@Nonnull final UINamespace namespace) {
+            builder.targetNamespace(namespace);
+        }
+
+        @Override
+        public void declareNamespace(@Nonnull final UINamespace namespace) {
+            builder.declareNamespace(namespace);
+        }
+
+        @Override
+        public void attribute(@Nonnull final String name, @Nonnull final String value) {
+            builder.attribute(name, value);
+        }
+
+        @Override
+        public void text(@Nonnull final String content) {
+            builder.text(content);
+        }
+
+        @Override
+        public void fragment(@Nonnull final String markup) {
+            builder.fragment(markup);
+        }
+
+        @Override
+        public void endElement() {
+            builder.endElement();
+        }
+    }
+}
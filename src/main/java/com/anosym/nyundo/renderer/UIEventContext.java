@@ -0,0 +1,54 @@
+package com.anosym.nyundo.renderer;
+
+import com.anosym.nyundo.component.UIComponent;
+import com.anosym.nyundo.element.UIMarkupHandler;
+import java.io.IOException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The context of a {@link UIEventRenderer}. The markup events of the component are emitted to the context itself.
+ *
+ * @author mochieng
+ */
+public interface UIEventContext extends UIMarkupHandler {
+
+    /**
+     * The component under render.
+     *
+     * @return
+     */
+    @Nonnull
+    UIComponent getCurrentComponent();
+
+    @Nullable
+    UIComponent getRootComponent();
+
+    /**
+     * Searches a component by id, see {@link UIRendererContext#findComponent(java.lang.String)}.
+     *
+     * @param id
+     *
+     * @return
+     */
+    @Nullable
+    UIComponent findComponent(@Nonnull final String id);
+
+    /**
+     * Renders a child component of the current component, within the current element.
+     *
+     * @param component
+     *
+     * @throws IOException
+     */
+    void render(@Nonnull final UIComponent component) throws IOException;
+
+    /**
+     * Marks a flush point: the markup emitted so far is sent to the client, if the output is flushable (e.g. an
+     * {@link com.anosym.nyundo.element.UIUtf8Output}). Renderers should flush once a meaningful prefix of the document
+     * is complete, such as the head and the page layout, and before rendering a slow component.
+     *
+     * @throws IOException
+     */
+    void flush() throws IOException;
+}
@@ -0,0 +1,209 @@
+package com.anosym.nyundo.renderer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.anosym.nyundo.component.UIComponent;
+import com.anosym.nyundo.element.UIElement;
+import com.anosym.nyundo.element.UIMarkupHandler;
+import com.anosym.nyundo.element.UINamespace;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Renders components straight to a {@link UIMarkupHandler}.
+ *
+ * {@link UIEventRenderer}s emit their events to the handler. The subtree of a component with an element renderer is
+ * rendered to elements, which are replayed as events and discarded, so only that subtree is ever held. The subtree is
+ * rendered within an element standing for the current open element, which carries its namespace prefix, and all the
+ * subtrees share a single element context, released on {@link #close()}.
+ *
+ * @author mochieng
+ */
+final class UIEventContextImpl implements UIEventContext, AutoCloseable {
+
+    private final UIRenderingManager renderingManager;
+    private final UIMarkupHandler handler;
+    private final Deque<UIComponent> components;
+    private UIComponent rootComponent;
+    /**
+     * The names, and the namespace prefixes qualifying them, of the elements opened through this context, by depth.
+     */
+    private String[] names = new String[16];
+    private String[] prefixes = new String[16];
+    private int depth;
+    /**
+     * The context rendering the subtrees of element renderers, acquired by the first one.
+     */
+    private UIRendererContextImpl elementContext;
+
+    UIEventContextImpl(@Nonnull final UIRenderingManager renderingManager, @Nonnull final UIMarkupHandler handler) {
+        this.renderingManager = renderingManager;
+        this.handler = handler;
+        this.components = new ArrayDeque<>();
+    }
+
+    @Override
+    public UIComponent getCurrentComponent() {
+        checkState(!components.isEmpty(), "There is no component under render");
+
+        return components.peek();
+    }
+
+    @Override
+    @Nullable
+    public UIComponent getRootComponent() {
+        return rootComponent;
+    }
+
+    @Override
+    @Nullable
+    public UIComponent findComponent(@Nonnull final String id) {
+        checkNotNull(id, "Component id must not be null");
+
+        final UIComponent component = id.trim().startsWith(":") ? rootComponent : components.peek();
+        return component != null ? component.findComponent(id) : null;
+    }
+
+    @Override
+    public void render(@Nonnull final UIComponent component) throws IOException {
+        checkNotNull(component, "Component to render must not be null");
+        if (rootComponent == null) {
+            rootComponent = component;
+        }
+        final boolean cacheable = UIFragmentCache.isCacheable(component);
+        if (cacheable) {
+            final String markup = renderingManager.getFragmentCache().getMarkup(component, getXmlns());
+            if (markup != null) {
+                handler.fragment(markup);
+                return;
+            }
+        }
+        final UIRenderer renderer = renderingManager.getRenderer(component);
+        if (renderer instanceof UIEventRenderer && !cacheable) {
+            components.push(component);
+            try {
+                ((UIEventRenderer) renderer).render(component, this);
+            } finally {
+                components.pop();
+            }
+        } else {
+            //Cached components are rendered to elements, to be cached.
+            final UIElement element = renderElements(component);
+            if (element != null) {
+                element.emitTo(handler);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (handler instanceof Flushable) {
+            ((Flushable) handler).flush();
+        }
+    }
+
+    @Override
+    public void startElement(@Nonnull final String name) throws IOException {
+        handler.startElement(name);
+        open(name, depth > 0 ? prefixes[depth - 1] : null);
+    }
+
+    @Override
+    public void startElement(@Nullable final String prefix, @Nonnull final String name) throws IOException {
+        handler.startElement(prefix, name);
+        open(name, prefix);
+    }
+
+    @Override
+    public void targetNamespace(@Nonnull final UINamespace namespace) throws IOException {
+        handler.targetNamespace(namespace);
+        if (depth > 0) {
+            final String prefix = namespace.getXmlns();
+            prefixes[depth - 1] = (prefix == null || prefix.trim().isEmpty()) ? null : prefix;
+        }
+    }
+
+    @Override
+    public void declareNamespace(@Nonnull final UINamespace namespace) throws IOException {
+        handler.declareNamespace(namespace);
+    }
+
+    @Override
+    public void attribute(@Nonnull final String name, @Nonnull final String value) throws IOException {
+        handler.attribute(name, value);
+    }
+
+    @Override
+    public void text(@Nonnull final String content) throws IOException {
+        handler.text(content);
+    }
+
+    @Override
+    public void fragment(@Nonnull final String markup) throws IOException {
+        handler.fragment(markup);
+    }
+
+    @Override
+    public void endElement() throws IOException {
+        handler.endElement();
+        if (depth > 0) {
+            names[--depth] = null;
+            prefixes[depth] = null;
+        }
+    }
+
+    /**
+     * Releases the element context, if any was acquired.
+     */
+    @Override
+    public void close() {
+        if (elementContext != null) {
+            renderingManager.releaseContext(elementContext);
+            elementContext = null;
+        }
+    }
+
+    /**
+     * Renders the component subtree to elements, within the current element.
+     */
+    @Nullable
+    private UIElement renderElements(@Nonnull final UIComponent component) {
+        if (elementContext == null) {
+            elementContext = renderingManager.acquireContext();
+        }
+        return elementContext.renderDetached(component, null, getCurrentElement());
+    }
+
+    private void open(@Nonnull final String name, @Nullable final String prefix) {
+        if (depth == names.length) {
+            names = Arrays.copyOf(names, depth * 2);
+            prefixes = Arrays.copyOf(prefixes, depth * 2);
+        }
+        names[depth] = name;
+        prefixes[depth] = (prefix == null || prefix.trim().isEmpty()) ? null : prefix;
+        depth++;
+    }
+
+    /**
+     * A detached element standing for the current open element, qualified by the same prefix, null if there is no open
+     * element.
+     */
+    @Nullable
+    private UIElement getCurrentElement() {
+        return depth > 0 ? new UIElement(prefixes[depth - 1], names[depth - 1], null) : null;
+    }
+
+    /**
+     * The namespace prefix qualifying the current element, null if none.
+     */
+    @Nullable
+    private String getXmlns() {
+        return depth > 0 ? prefixes[depth - 1] : null;
+    }
+}
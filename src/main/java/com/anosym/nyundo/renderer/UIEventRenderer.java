@@ -0,0 +1,24 @@
+package com.anosym.nyundo.renderer;
+
+import com.anosym.nyundo.component.UIComponent;
+import java.io.IOException;
+import javax.annotation.Nonnull;
+
+/**
+ * A renderer emitting the markup of its component as events, instead of building {@link com.anosym.nyundo.element.UIElement}s.
+ *
+ * When rendering through {@link UIRenderingManager#render(UIComponent, com.anosym.nyundo.element.UIMarkupHandler)},
+ * the events go straight to the output and no element is ever created. When rendering to an element tree, the render
+ * contexts build the elements from the events. Either way, the render contexts never call the element methods of
+ * {@link UIRenderer} on an event renderer, which {@link UIAbstractEventRenderer} implements by building the elements of
+ * the events for any other caller.
+ *
+ * Child components must be rendered through {@link UIEventContext#render(UIComponent)}, between the start and the end
+ * of the element containing them.
+ *
+ * @author mochieng
+ */
+public interface UIEventRenderer extends UIRenderer {
+
+    void render(@Nonnull final UIComponent component, @Nonnull final UIEventContext context) throws IOException;
+}
@@ -0,0 +1,227 @@
+package com.anosym.nyundo.renderer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.anosym.nyundo.annotation.Cacheable;
+import com.anosym.nyundo.component.UIAttributeBinder;
+import com.anosym.nyundo.component.UIComponent;
+import com.anosym.nyundo.element.UIElement;
+import com.anosym.nyundo.element.UIFragment;
+import com.anosym.nyundo.element.UIRenderMode;
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Caches the rendered markup of {@link Cacheable} components, by component class, attribute values and the namespace
+ * prefix inherited from the enclosing markup, which qualifies the cached tags.
+ *
+ * The cache is bounded by the total size of the cached markup, least recently used fragments being evicted first.
+ * Cached markup must be invalidated explicitly once it no longer reflects its component, see
+ * {@link #invalidate(UIComponent)} and {@link #invalidate(java.lang.Class)}.
+ *
+ * A hit still allocates one {@link UIFragment} element sharing the cached markup when rendering elements, as the
+ * element tree needs a node in place of the component. Rendering to a writer, e.g.
+ * {@link UIRenderingManager#renderTo(UIComponent, java.lang.Appendable, UIRenderMode)},
+ * writes the cached markup as-is without allocating any element.
+ *
+ * @author mochieng
+ */
+public final class UIFragmentCache {
+
+    /**
+     * The default bound of the cached markup, in UTF-8 bytes.
+     */
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 8 * 1024 * 1024;
+
+    private static final ClassValue<Optional<Cacheable>> CACHEABLE = new ClassValue<Optional<Cacheable>>() {
+
+        @Override
+        protected Optional<Cacheable> computeValue(Class<?> type) {
+            return Optional.fromNullable(type.getAnnotation(Cacheable.class));
+        }
+    };
+
+    private final Cache<FragmentKey, UIFragment> fragments;
+
+    public UIFragmentCache() {
+        this(DEFAULT_MAXIMUM_WEIGHT);
+    }
+
+    /**
+     * @param maximumWeight the bound of the cached markup, in UTF-8 bytes.
+     */
+    public UIFragmentCache(final long maximumWeight) {
+        checkArgument(maximumWeight >= 0, "The maximum weight of the fragment cache must not be negative");
+
+        this.fragments = CacheBuilder.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher(new Weigher<FragmentKey, UIFragment>() {
+
+                    @Override
+                    public int weigh(FragmentKey key, UIFragment fragment) {
+                        return fragment.getEncodedLength();
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Whether the markup of the component is cached: its class is {@link Cacheable}, and it has no children unless its
+     * class opts in.
+     *
+     * @param component
+     *
+     * @return
+     */
+    public static boolean isCacheable(@Nonnull final UIComponent component) {
+        checkNotNull(component, "The component must not be null");
+
+        final Optional<Cacheable> cacheable = CACHEABLE.get(component.getClass());
+        return cacheable.isPresent() && (cacheable.get().children() || component.getChildren().isEmpty());
+    }
+
+    /**
+     * The hit, miss and eviction statistics of this cache.
+     *
+     * @return
+     */
+    @Nonnull
+    public CacheStats getStats() {
+        return fragments.stats();
+    }
+
+    /**
+     * The number of cached fragments.
+     *
+     * @return
+     */
+    public long size() {
+        return fragments.size();
+    }
+
+    /**
+     * Invalidates the markup cached for the current attribute values of the component, under any namespace prefix.
+     *
+     * @param component
+     */
+    public void invalidate(@Nonnull final UIComponent component) {
+        checkNotNull(component, "The component must not be null");
+
+        final FragmentKey invalidated = FragmentKey.of(component, null);
+        final Iterator<FragmentKey> keys = fragments.asMap().keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().isSameComponent(invalidated)) {
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * Invalidates the markup cached for every component of the specified class.
+     *
+     * @param componentClass
+     */
+    public void invalidate(@Nonnull final Class<? extends UIComponent> componentClass) {
+        checkNotNull(componentClass, "The component class must not be null");
+
+        final Iterator<FragmentKey> keys = fragments.asMap().keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().componentClass == componentClass) {
+                keys.remove();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        fragments.invalidateAll();
+    }
+
+    /**
+     * Returns a new fragment element holding the cached markup of the component, or null if none is cached. The markup
+     * is shared, only the element is allocated.
+     */
+    @Nullable
+    UIFragment get(@Nonnull final UIComponent component, @Nullable final UIElement parentElement) {
+        final String xmlns = parentElement != null ? parentElement.getXmlns() : null;
+        final UIFragment fragment = fragments.getIfPresent(FragmentKey.of(component, xmlns));
+        return fragment != null ? fragment.copy(parentElement) : null;
+    }
+
+    /**
+     * Returns the cached markup of the component, rendered under the namespace prefix, or null if none is cached.
+     */
+    @Nullable
+    String getMarkup(@Nonnull final UIComponent component, @Nullable final String xmlns) {
+        final UIFragment fragment = fragments.getIfPresent(FragmentKey.of(component, xmlns));
+        return fragment != null ? fragment.getMarkup() : null;
+    }
+
+    /**
+     * Caches the compact markup of the element rendered for the component, under the prefix inherited from its parent
+     * element.
+     */
+    void put(@Nonnull final UIComponent component, @Nonnull final UIElement element) {
+        final UIElement parentElement = element.getParentElement();
+        final StringBuilder markup = new StringBuilder();
+        try {
+            element.renderTo(markup, UIRenderMode.COMPACT);
+        } catch (IOException ex) {
+            //StringBuilder never throws.
+            throw new IllegalStateException(ex);
+        }
+        fragments.put(FragmentKey.of(component, parentElement != null ? parentElement.getXmlns() : null),
+                new UIFragment(markup.toString(), null));
+    }
+
+    private static final class FragmentKey {
+
+        private final Class<? extends UIComponent> componentClass;
+        private final List<String> attributeValues;
+        private final String xmlns;
+        private final int hash;
+
+        private FragmentKey(@Nonnull final Class<? extends UIComponent> componentClass,
+                @Nonnull final List<String> attributeValues, @Nullable final String xmlns) {
+            this.componentClass = componentClass;
+            this.attributeValues = attributeValues;
+            this.xmlns = xmlns;
+            this.hash = 31 * (31 * componentClass.hashCode() + attributeValues.hashCode()) + Objects.hashCode(xmlns);
+        }
+
+        @Nonnull
+        static FragmentKey of(@Nonnull final UIComponent component, @Nullable final String xmlns) {
+            final UIAttributeBinder binder = UIAttributeBinder.forClass(component.getClass());
+            return new FragmentKey(component.getClass(), binder.getAttributeValues(component), xmlns);
+        }
+
+        boolean isSameComponent(@Nonnull final FragmentKey other) {
+            return this.componentClass == other.componentClass
+                    && Objects.equals(this.attributeValues, other.attributeValues);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FragmentKey)) {
+                return false;
+            }
+            final FragmentKey other = (FragmentKey) obj;
+            return this.hash == other.hash && isSameComponent(other) && Objects.equals(this.xmlns, other.xmlns);
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package com.anosym.nyundo.renderer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.anosym.nyundo.component.UIAttributeBinder;
+import com.anosym.nyundo.component.UIComponent;
+import com.anosym.nyundo.element.UIAttribute;
+import com.anosym.nyundo.element.UIElement;
+import com.anosym.nyundo.element.UIRenderMode;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Renders a component tree once, then renders only its changes as {@link UIRenderPatch}es.
+ *
+ * The session keeps the element tree of the last render, and the attribute values and children of every rendered
+ * component. On {@link #update()}, only the paths of the tree flagged by {@link UIComponent#markChanged()} are visited,
+ * and the components whose attributes or children actually changed are re-rendered, their
+ * unchanged child elements being reused as-is, which requires renderers to render child components through
+ * {@link UIRendererContext#render(UIComponent)}. The re-rendered elements are then compared to the previous ones to
+ * produce the patch.
+ *
+ * Like {@link UIRenderSession}, an incremental session must not be used by more than one thread at a time. A session
+ * whose update failed must be discarded. The session clears the changes of its tree once rendered, so a component tree
+ * must not be rendered by more than one incremental session.
+ *
+ * <pre>
+ *  <code>
+ *   try (UIIncrementalSession session = renderingManager.openIncrementalSession()) {
+ *      UIElement page = session.render(rootComponent);
+ *      ...
+ *      UIRenderPatch patch = session.update();
+ *   }
+ *  </code>
+ * </pre>
+ *
+ * @author mochieng
+ */
+public final class UIIncrementalSession implements AutoCloseable {
+
+    private static final char MARKUP_KEY_PREFIX = '\u0000';
+
+    private final UIRenderingManager renderingManager;
+    private UIRendererContextImpl context;
+    private UIComponent rootComponent;
+    private UIElement rootElement;
+    /**
+     * The state of every component at its last render, by canonical id.
+     */
+    private final Map<String, ComponentState> states = new HashMap<>();
+    /**
+     * The canonical id of the component of every element rendered for a component.
+     */
+    private final Map<UIElement, String> elementIds = new IdentityHashMap<>();
+    /**
+     * The component being re-rendered, whose descendants may reuse their previous element.
+     */
+    private UIComponent rerenderedComponent;
+    private boolean reuseDescendants;
+
+    UIIncrementalSession(@Nonnull final UIRenderingManager renderingManager, @Nonnull final UIRendererContextImpl context) {
+        this.renderingManager = renderingManager;
+        this.context = context;
+        this.context.setRenderHook(new UIRendererContextImpl.RenderHook() {
+
+            @Override
+            public UIElement reuse(@Nonnull final UIComponent component) {
+                return reuseElement(component);
+            }
+
+            @Override
+            public void rendered(@Nonnull final UIComponent component, @Nonnull final UIElement element) {
+                recordState(component, element);
+            }
+        });
+    }
+
+    /**
+     * Fully renders the component tree, which becomes the tree of this session.
+     *
+     * @param component the root component
+     *
+     * @return
+     */
+    @Nonnull
+    public UIElement render(@Nonnull final UIComponent component) {
+        checkNotNull(component, "The component to render must not be null");
+        checkState(rootComponent == null, "The incremental session has already rendered its component tree");
+        checkOpen();
+
+        rootComponent = component;
+        rootElement = checkNotNull(context.renderDetached(component, null), "The root component rendered no element");
+        component.clearChanges();
+        return rootElement;
+    }
+
+    /**
+     * The element tree, as updated by the last render or update.
+     *
+     * @return
+     */
+    @Nullable
+    public UIElement getRootElement() {
+        return rootElement;
+    }
+
+    /**
+     * Re-renders the components changed since the last render or update, and returns the resulting changes.
+     *
+     * @return
+     */
+    @Nonnull
+    public UIRenderPatch update() {
+        checkState(rootComponent != null, "The component tree must be rendered before being updated");
+        checkOpen();
+
+        final List<UIRenderPatch.Operation> operations = Lists.newArrayList();
+        if (rootComponent.isChanged() || rootComponent.hasChangedDescendants()) {
+            visit(rootComponent, operations);
+            rootComponent.clearChanges();
+        }
+        return new UIRenderPatch(operations);
+    }
+
+    public boolean isClosed() {
+        return context == null;
+    }
+
+    @Override
+    public void close() {
+        if (context != null) {
+            final UIRendererContextImpl closedContext = context;
+            context = null;
+            states.clear();
+            elementIds.clear();
+            rootComponent = null;
+            rootElement = null;
+            renderingManager.releaseContext(closedContext);
+        }
+    }
+
+    private void checkOpen() {
+        checkState(context != null, "The incremental session has already been closed");
+    }
+
+    private void visit(@Nonnull final UIComponent component, @Nonnull final List<UIRenderPatch.Operation> operations) {
+        final ComponentState state = states.get(component.getCanonicalId());
+        checkState(state != null, "The component (%s) was never rendered", component.getCanonicalId());
+        if (state.component != component || state.componentClass != component.getClass()) {
+            //Another component under the same id.
+            replace(component, state, operations);
+            return;
+        }
+        if (component.isChanged() && (!state.attributeValues.equals(attributeValues(component))
+                || !state.childIds.equals(childIds(component)))) {
+            if (!update(component, state, operations)) {
+                return;
+            }
+        }
+        if (component.hasChangedDescendants()) {
+            for (UIComponent child : component) {
+                if (child.isChanged() || child.hasChangedDescendants()) {
+                    visit(child, operations);
+                }
+            }
+        }
+    }
+
+    /**
+     * Re-renders the whole subtree of the component.
+     */
+    private void replace(@Nonnull final UIComponent component, @Nonnull final ComponentState state,
+            @Nonnull final List<UIRenderPatch.Operation> operations) {
+        forget(component.getCanonicalId());
+        final UIElement element = rerender(component, false);
+        attach(state.element, element);
+        operations.add(UIRenderPatch.Operation.replace(component.getCanonicalId(), compact(element)));
+    }
+
+    /**
+     * Re-renders the component, reusing the elements of its children, then compares its element to the previous one.
+     *
+     * @return whether the children of the component must still be visited, false if the component element has been
+     * replaced as a whole.
+     */
+    private boolean update(@Nonnull final UIComponent component, @Nonnull final ComponentState state,
+            @Nonnull final List<UIRenderPatch.Operation> operations) {
+        final String componentId = component.getCanonicalId();
+        final UIElement previous = state.element;
+        final List<String> previousKeys = childKeys(previous.getChildren());
+        final Map<String, String> previousAttributes = attributes(previous);
+        forgetDetachedChildren(component, state);
+        final UIElement element = rerender(component, true);
+        attach(previous, element);
+        if (!previous.getName().equals(element.getName())
+                || !Objects.equal(previous.getTargetNamespace(), element.getTargetNamespace())
+                || !previous.getDeclaredNamespaces().equals(element.getDeclaredNamespaces())) {
+            operations.add(UIRenderPatch.Operation.replace(componentId, compact(element)));
+            return false;
+        }
+        final List<UIElement> children = ImmutableList.copyOf(element.getChildren());
+        final List<String> keys = childKeys(children);
+        if (!previousKeys.equals(keys)) {
+            final List<String> retainedPreviousKeys = Lists.newArrayList(previousKeys);
+            retainedPreviousKeys.retainAll(keys);
+            final List<String> retainedKeys = Lists.newArrayList(keys);
+            retainedKeys.retainAll(previousKeys);
+            if (!retainedPreviousKeys.equals(retainedKeys) || !isComponentKeys(previousKeys, keys)) {
+                //Reordered children, or changed markup other than child components.
+                operations.add(UIRenderPatch.Operation.replace(componentId, compact(element)));
+                return false;
+            }
+            for (String key : previousKeys) {
+                if (!keys.contains(key)) {
+                    operations.add(UIRenderPatch.Operation.remove(key));
+                }
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                if (!previousKeys.contains(keys.get(i))) {
+                    operations.add(UIRenderPatch.Operation.insert(keys.get(i), componentId, i, compact(children.get(i))));
+                }
+            }
+        }
+        final Map<String, String> attributes = attributes(element);
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            if (!attribute.getValue().equals(previousAttributes.get(attribute.getKey()))) {
+                operations.add(UIRenderPatch.Operation.setAttribute(componentId, attribute.getKey(), attribute.getValue()));
+            }
+        }
+        for (String name : previousAttributes.keySet()) {
+            if (!attributes.containsKey(name)) {
+                operations.add(UIRenderPatch.Operation.removeAttribute(componentId, name));
+            }
+        }
+        return true;
+    }
+
+    @Nonnull
+    private UIElement rerender(@Nonnull final UIComponent component, final boolean reuse) {
+        rerenderedComponent = component;
+        reuseDescendants = reuse;
+        try {
+            return checkNotNull(context.renderDetached(component, rootElement), "The component (%s) rendered no element",
+                    component.getCanonicalId());
+        } finally {
+            rerenderedComponent = null;
+            reuseDescendants = false;
+        }
+    }
+
+    /**
+     * Puts the re-rendered element in place of the previous one.
+     */
+    private void attach(@Nonnull final UIElement previous, @Nonnull final UIElement element) {
+        final UIElement parentElement = previous.getParentElement();
+        if (parentElement != null) {
+            parentElement.replaceChild(previous, element);
+        } else if (previous == rootElement) {
+            rootElement = element;
+        }
+    }
+
+    @Nullable
+    private UIElement reuseElement(@Nonnull final UIComponent component) {
+        if (!reuseDescendants || component == rerenderedComponent) {
+            return null;
+        }
+        final ComponentState state = states.get(component.getCanonicalId());
+        if (state == null || state.component != component) {
+            return null;
+        }
+        state.element.detach();
+        return state.element;
+    }
+
+    private void recordState(@Nonnull final UIComponent component, @Nonnull final UIElement element) {
+        final String componentId = component.getCanonicalId();
+        final ComponentState previous = states.get(componentId);
+        if (previous != null && previous.element == element) {
+            //Reused, the component is yet to be visited.
+            return;
+        }
+        if (previous != null) {
+            elementIds.remove(previous.element);
+        }
+        states.put(componentId, new ComponentState(component, element, attributeValues(component), childIds(component)));
+        elementIds.put(element, componentId);
+    }
+
+    /**
+     * Forgets the state of the previous children of the component which are no longer its children, removed or replaced
+     * by another component under the same id.
+     */
+    private void forgetDetachedChildren(@Nonnull final UIComponent component, @Nonnull final ComponentState state) {
+        final Map<String, UIComponent> children = Maps.newHashMapWithExpectedSize(component.getChildren().size());
+        for (UIComponent child : component) {
+            children.put(child.getCanonicalId(), child);
+        }
+        for (String childId : state.childIds) {
+            final ComponentState childState = states.get(childId);
+            if (childState != null && children.get(childId) != childState.component) {
+                forget(childId);
+            }
+        }
+    }
+
+    /**
+     * Forgets the state of the component and of its descendants, as they were last rendered.
+     */
+    private void forget(@Nonnull final String componentId) {
+        final ComponentState state = states.remove(componentId);
+        if (state != null) {
+            elementIds.remove(state.element);
+            for (String childId : state.childIds) {
+                forget(childId);
+            }
+        }
+    }
+
+    /**
+     * Child component elements are keyed by their component id, which always starts with ':'. Any other child element
+     * is keyed by its markup, prefixed so that it never starts with ':'.
+     */
+    @Nonnull
+    private List<String> childKeys(@Nonnull final Iterable<UIElement> children) {
+        final List<String> keys = Lists.newArrayList();
+        for (UIElement child : children) {
+            final String componentId = elementIds.get(child);
+            keys.add(componentId != null ? componentId : MARKUP_KEY_PREFIX + compact(child));
+        }
+        return keys;
+    }
+
+    /**
+     * Whether every child key added or removed is the key of a child component.
+     */
+    private boolean isComponentKeys(@Nonnull final List<String> previousKeys, @Nonnull final List<String> keys) {
+        for (String key : previousKeys) {
+            if (!keys.contains(key) && !key.startsWith(":")) {
+                return false;
+            }
+        }
+        for (String key : keys) {
+            if (!previousKeys.contains(key) && !key.startsWith(":")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Nonnull
+    private static Map<String, String> attributes(@Nonnull final UIElement element) {
+        final Map<String, String> attributes = Maps.newLinkedHashMap();
+        for (UIAttribute attribute : element.getAttributes()) {
+            attributes.put(attribute.getName(), attribute.getValue());
+        }
+        return attributes;
+    }
+
+    @Nonnull
+    private static List<String> attributeValues(@Nonnull final UIComponent component) {
+        return UIAttributeBinder.forClass(component.getClass()).getAttributeValues(component);
+    }
+
+    @Nonnull
+    private static List<String> childIds(@Nonnull final UIComponent component) {
+        final List<String> childIds = Lists.newArrayListWithCapacity(component.getChildren().size());
+        for (UIComponent child : component) {
+            childIds.add(child.getCanonicalId());
+        }
+        return childIds;
+    }
+
+    @Nonnull
+    private static String compact(@Nonnull final UIElement element) {
+        final StringBuilder markup = new StringBuilder();
+        try {
+            element.renderTo(markup, UIRenderMode.COMPACT);
+        } catch (IOException ex) {
+            //StringBuilder never throws.
+            throw new IllegalStateException(ex);
+        }
+        return markup.toString();
+    }
+
+    private static final class ComponentState {
+
+        private final UIComponent component;
+        private final Class<? extends UIComponent> componentClass;
+        private final UIElement element;
+        private final List<String> attributeValues;
+        private final List<String> childIds;
+
+        private ComponentState(@Nonnull final UIComponent component, @Nonnull final UIElement element,
+                @Nonnull final List<String> attributeValues, @Nonnull final List<String> childIds) {
+            this.component = component;
+            this.componentClass = component.getClass();
+            this.element = element;
+            this.attributeValues = attributeValues;
+            this.childIds = childIds;
+        }
+    }
+}
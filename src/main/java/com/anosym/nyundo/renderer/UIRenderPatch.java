@@ -0,0 +1,213 @@
+package com.anosym.nyundo.renderer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.anosym.nyundo.UIStringable;
+import com.anosym.nyundo.element.UIName;
+import com.anosym.nyundo.element.UIXmlEscaper;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The changes of a rendered document since its previous render, addressed by component canonical id.
+ *
+ * Operations must be applied in order. Markup is always in compact form.
+ *
+ * @author mochieng
+ */
+public final class UIRenderPatch extends UIStringable {
+
+    public static enum Type {
+
+        /**
+         * Replaces the element of the component by the markup.
+         */
+        REPLACE("replace"),
+        /**
+         * Inserts the markup of a new component as child of the parent component element, at the position.
+         */
+        INSERT("insert"),
+        /**
+         * Removes the element of the component.
+         */
+        REMOVE("remove"),
+        SET_ATTRIBUTE("set-attribute"),
+        REMOVE_ATTRIBUTE("remove-attribute");
+
+        private final UIName tag;
+
+        private Type(@Nonnull final String tag) {
+            this.tag = UIName.of(tag);
+        }
+    }
+
+    private static final UIName PATCH = UIName.of("patch");
+
+    private final List<Operation> operations;
+
+    UIRenderPatch(@Nonnull final List<Operation> operations) {
+        this.operations = ImmutableList.copyOf(operations);
+    }
+
+    @Nonnull
+    public List<Operation> getOperations() {
+        return operations;
+    }
+
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    /**
+     * Writes the patch as an xml document, e.g.
+     * {@code <patch><set-attribute id=":form:email" name="value" value="a@b.c"/></patch>}.
+     *
+     * @param out
+     *
+     * @throws IOException
+     */
+    public void renderTo(@Nonnull final Appendable out) throws IOException {
+        checkNotNull(out, "The appendable must not be null");
+
+        PATCH.appendOpenTag(out).append('>');
+        for (Operation operation : operations) {
+            operation.renderTo(out);
+        }
+        PATCH.appendCloseTag(out);
+    }
+
+    public static final class Operation extends UIStringable {
+
+        private final Type type;
+        private final String componentId;
+        private final String parentId;
+        private final int position;
+        private final String name;
+        private final String value;
+
+        private Operation(@Nonnull final Type type, @Nonnull final String componentId, @Nullable final String parentId,
+                final int position, @Nullable final String name, @Nullable final String value) {
+            this.type = type;
+            this.componentId = componentId;
+            this.parentId = parentId;
+            this.position = position;
+            this.name = name;
+            this.value = value;
+        }
+
+        @Nonnull
+        static Operation replace(@Nonnull final String componentId, @Nonnull final String markup) {
+            return new Operation(Type.REPLACE, componentId, null, -1, null, markup);
+        }
+
+        @Nonnull
+        static Operation insert(@Nonnull final String componentId, @Nonnull final String parentId, final int position,
+                @Nonnull final String markup) {
+            return new Operation(Type.INSERT, componentId, parentId, position, null, markup);
+        }
+
+        @Nonnull
+        static Operation remove(@Nonnull final String componentId) {
+            return new Operation(Type.REMOVE, componentId, null, -1, null, null);
+        }
+
+        @Nonnull
+        static Operation setAttribute(@Nonnull final String componentId, @Nonnull final String name,
+                @Nonnull final String value) {
+            return new Operation(Type.SET_ATTRIBUTE, componentId, null, -1, name, value);
+        }
+
+        @Nonnull
+        static Operation removeAttribute(@Nonnull final String componentId, @Nonnull final String name) {
+            return new Operation(Type.REMOVE_ATTRIBUTE, componentId, null, -1, name, null);
+        }
+
+        @Nonnull
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * The canonical id of the component whose element is changed.
+         *
+         * @return
+         */
+        @Nonnull
+        public String getComponentId() {
+            return componentId;
+        }
+
+        /**
+         * The canonical id of the parent component, for {@link Type#INSERT}.
+         *
+         * @return
+         */
+        @Nullable
+        public String getParentId() {
+            return parentId;
+        }
+
+        /**
+         * The position of the element among its parent element children, for {@link Type#INSERT}.
+         *
+         * @return
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        /**
+         * The attribute name, for {@link Type#SET_ATTRIBUTE} and {@link Type#REMOVE_ATTRIBUTE}.
+         *
+         * @return
+         */
+        @Nullable
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * The markup for {@link Type#REPLACE} and {@link Type#INSERT}, the attribute value for
+         * {@link Type#SET_ATTRIBUTE}.
+         *
+         * @return
+         */
+        @Nullable
+        public String getValue() {
+            return value;
+        }
+
+        private void renderTo(@Nonnull final Appendable out) throws IOException {
+            type.tag.appendOpenTag(out);
+            appendAttribute(out, "id", componentId);
+            if (type == Type.INSERT) {
+                appendAttribute(out, "parent", parentId);
+                appendAttribute(out, "position", String.valueOf(position));
+            }
+            if (name != null) {
+                appendAttribute(out, "name", name);
+            }
+            switch (type) {
+                case REPLACE:
+                case INSERT:
+                    out.append('>').append(value);
+                    type.tag.appendCloseTag(out);
+                    break;
+                case SET_ATTRIBUTE:
+                    appendAttribute(out, "value", value);
+                    out.append("/>");
+                    break;
+                default:
+                    out.append("/>");
+            }
+        }
+
+        private static void appendAttribute(@Nonnull final Appendable out, @Nonnull final String name,
+                @Nonnull final String value) throws IOException {
+            UIXmlEscaper.escapeAttribute(UIName.of(name).appendAttributeStart(out.append(' ')), value).append('"');
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.anosym.nyundo.renderer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.anosym.nyundo.component.UIComponent;
+import com.anosym.nyundo.element.UIElement;
+import com.anosym.nyundo.util.UIComponentId;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * A single render, from opening by {@link UIRenderingManager#openSession()} to closing.
+ *
+ * The session holds its {@link UIRendererContext} explicitly, no thread-local state is involved, hence a session may
+ * be handed over between threads (but must not be used by more than one thread at a time). Once closed, the context is
+ * reset and recycled, and no reference to the rendered components or elements is retained.
+ *
+ * The context exposed by {@link #getContext()} is only a view of the session context, which fails once the session is
+ * closed, so that it cannot reach the next session recycling the context.
+ *
+ * @author mochieng
+ */
+public final class UIRenderSession implements AutoCloseable {
+
+    private final UIRenderingManager renderingManager;
+    private final UIRendererContext sessionContext;
+    private UIRendererContextImpl context;
+
+    UIRenderSession(@Nonnull final UIRenderingManager renderingManager, @Nonnull final UIRendererContextImpl context) {
+        this.renderingManager = renderingManager;
+        this.context = context;
+        this.sessionContext = new SessionContext();
+    }
+
+    /**
+     * The context of this session, usable until the session is closed.
+     *
+     * @return
+     */
+    @Nonnull
+    public UIRendererContext getContext() {
+        openContext();
+
+        return sessionContext;
+    }
+
+    @Nonnull
+    public UIElement render(@Nonnull final UIComponent component) {
+        checkNotNull(component, "The component to render must not be null");
+
+        return openContext().render(component);
+    }
+
+    /**
+     * Renders only the subtree of the component with the specified id, within the tree of the root component. See
+     * {@link UIComponent#findComponent(java.lang.String)} for the resolution of the id.
+     *
+     * The ancestors of the component are not rendered, their elements are only created as the context of the subtree.
+     * The returned element is attached to them, {@link UIRendererContext#getRootElement()} being the element of the
+     * root component.
+     *
+     * @param rootComponent
+     * @param id
+     *
+     * @return the element of the component
+     */
+    @Nonnull
+    public UIElement renderSubtree(@Nonnull final UIComponent rootComponent, @Nonnull final String id) {
+        checkNotNull(rootComponent, "The root component must not be null");
+        checkNotNull(id, "The component id must not be null");
+        final UIRendererContextImpl openContext = openContext();
+
+        final UIComponent component = rootComponent.findComponent(id);
+        checkArgument(component != null, "No component (%s) within the tree of (%s)", id, rootComponent.getCanonicalId());
+        return openContext.renderSubtree(component);
+    }
+
+    /**
+     * Sets the maximum number of independent subtrees (see {@link UIRendererContext#renderIndependent(java.util.List)})
+     * rendered concurrently by this session. Defaults to 1, in which case every subtree is rendered on the calling
+     * thread.
+     *
+     * @param parallelism
+     */
+    public void setParallelism(final int parallelism) {
+        openContext().setParallelism(parallelism);
+    }
+
+    public boolean isClosed() {
+        return context == null;
+    }
+
+    @Override
+    public void close() {
+        if (context != null) {
+            final UIRendererContextImpl closedContext = context;
+            context = null;
+            renderingManager.releaseContext(closedContext);
+        }
+    }
+
+    @Nonnull
+    private UIRendererContextImpl openContext() {
+        checkState(context != null, "The render session has already been closed");
+
+        return context;
+    }
+
+    /**
+     * Delegates to the context of the session while it is open.
+     */
+    private final class SessionContext implements UIRendererContext {
+
+        @Override
+        public UIComponent getCurrentComponent() {
+            return openContext().getCurrentComponent();
+        }
+
+        @Override
+        public UIElement getCurrentElement() {
+            return openContext().getCurrentElement();
+        }
+
+        @Override
+        public UIComponent getRootComponent() {
+            return openContext().getRootComponent();
+        }
+
+        @Override
+        public UIElement getRootElement() {
+            return openContext().getRootElement();
+        }
+
+        @Override
+        public UIComponent findComponent(@Nonnull final String id) {
+            return openContext().findComponent(id);
+        }
+
+        @Override
+        public UIComponent findComponent(@Nonnull final UIComponentId componentId) {
+            return openContext().findComponent(componentId);
+        }
+
+        @Override
+        public UIElement render(@Nonnull final UIComponent component) {
+            return openContext().render(component);
+        }
+
+        @Override
+        public List<UIElement> renderIndependent(@Nonnull final List<? extends UIComponent> components) {
+            return openContext().renderIndependent(components);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.anosym.nyundo.renderer;
 import com.anosym.nyundo.component.UIComponent;
 import com.anosym.nyundo.element.UIElement;
 import com.anosym.nyundo.util.UIComponentId;
+import java.util.List;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -94,4 +95,18 @@ public interface UIRendererContext {
      */
     UIElement render(@Nonnull final UIComponent component);
 
+    /**
+     * Renders the specified children of the current component as independent subtrees.
+     *
+     * Independent subtrees must not depend on each other's rendering, in which case they may be rendered concurrently
+     * (see {@link UIRenderSession#setParallelism(int)}), each within its own child context. Either way, the rendered
+     * elements are attached to the current element in the order of the specified components.
+     *
+     * @param components the child components to render
+     *
+     * @return the rendered elements, in the order of the components
+     */
+    @Nonnull
+    List<UIElement> renderIndependent(@Nonnull final List<? extends UIComponent> components);
+
 }
@@ -0,0 +1,467 @@
+package com.anosym.nyundo.renderer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.anosym.nyundo.UIStringable;
+import com.anosym.nyundo.component.UIComponent;
+import com.anosym.nyundo.element.UIElement;
+import com.anosym.nyundo.element.UIElementBuilder;
+import com.anosym.nyundo.element.UIFragment;
+import com.anosym.nyundo.element.UINamespace;
+import com.anosym.nyundo.util.UIComponentId;
+import com.anosym.nyundo.util.UIPair;
+import com.google.common.collect.Lists;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The context of a single {@link UIRenderSession}. Contexts are not thread-safe, and are recycled once their session
+ * is closed.
+ *
+ * @author mochieng
+ */
+final class UIRendererContextImpl extends UIStringable implements UIRendererContext {
+
+    private final UIPair<UIComponent, UIElement> rootComponentElementPair;
+    private final Deque<UIPair<UIComponent, UIElement>> currentComponentElementPairStack;
+    private final UIRenderingManager renderingManager;
+    /**
+     * The maximum number of independent subtrees rendered concurrently.
+     */
+    private int parallelism;
+    /**
+     * Observes, and may short-circuit, the render of every component. Only set for sequential renders.
+     */
+    private RenderHook renderHook;
+
+    UIRendererContextImpl(final UIRenderingManager renderingManager) {
+        this.renderingManager = renderingManager;
+        this.rootComponentElementPair = new UIPair<>();
+        this.currentComponentElementPairStack = new ArrayDeque<>();
+        this.parallelism = 1;
+    }
+
+    /**
+     * Creates the context of an independent subtree of the specified parent context. The subtree elements are created
+     * within a detached stand-in of the parent element, qualified by the same prefix, and moved to the parent
+     * element only once the subtree has been rendered.
+     */
+    private UIRendererContextImpl(@Nonnull final UIRendererContextImpl parentContext) {
+        this(parentContext.renderingManager);
+        this.parallelism = parentContext.parallelism;
+        this.rootComponentElementPair.setFirst(parentContext.getRootComponent());
+        this.rootComponentElementPair.setSecond(parentContext.getRootElement());
+        this.currentComponentElementPairStack.push(new UIPair<>(parentContext.getCurrentComponent(),
+                standIn(parentContext.getCurrentElement())));
+    }
+
+    /**
+     * A detached element standing for the element, qualified by the same prefix, null if there is no element.
+     */
+    @Nullable
+    private static UIElement standIn(@Nullable final UIElement element) {
+        return element != null ? new UIElement(element.getXmlns(), element.getName(), null) : null;
+    }
+
+    int getParallelism() {
+        return parallelism;
+    }
+
+    void setParallelism(final int parallelism) {
+        checkArgument(parallelism > 0, "The render parallelism must be positive");
+
+        this.parallelism = parallelism;
+    }
+
+    void setRenderHook(@Nullable final RenderHook renderHook) {
+        this.renderHook = renderHook;
+    }
+
+    @Override
+    @Nullable
+    public UIComponent getCurrentComponent() {
+        if (!currentComponentElementPairStack.isEmpty()) {
+            return currentComponentElementPairStack.peek().getFirst();
+        }
+        return null;
+    }
+
+    @Override
+    @Nullable
+    public UIElement getCurrentElement() {
+        if (!currentComponentElementPairStack.isEmpty()) {
+            return currentComponentElementPairStack.peek().getSecond();
+        }
+        return null;
+    }
+
+    @Override
+    public UIElement render(@Nonnull final UIComponent component) {
+        checkNotNull(component, "Component to render must not be null");
+        if (renderHook != null) {
+            final UIElement reused = renderHook.reuse(component);
+            if (reused != null) {
+                final UIElement parentElement = getCurrentElement();
+                if (parentElement != null) {
+                    parentElement.appendChild(reused);
+                }
+                setRootIfEmpty(component, reused);
+                renderHook.rendered(component, reused);
+                return reused;
+            }
+        }
+        final UIRenderer renderer = renderingManager.getRenderer(component);
+        final boolean cacheable = UIFragmentCache.isCacheable(component);
+        if (cacheable) {
+            final UIFragment fragment = renderingManager.getFragmentCache().get(component, getCurrentElement());
+            if (fragment != null) {
+                setRootIfEmpty(component, fragment);
+                onRendered(component, fragment);
+                return fragment;
+            }
+        }
+        final UIElement element;
+        if (renderer instanceof UIEventRenderer) {
+            element = renderEvents(component, (UIEventRenderer) renderer);
+        } else {
+            final UIPair<UIComponent, UIElement> current = new UIPair<>(component, renderer.createElement(component, getCurrentElement()));
+            setRootIfEmpty(component, current.getSecond());
+            this.currentComponentElementPairStack.push(current);
+            try {
+                element = renderer.render(component, this);
+            } finally {
+                onRenderComplete();
+            }
+        }
+        if (cacheable && element != null) {
+            renderingManager.getFragmentCache().put(component, element);
+        }
+        onRendered(component, element);
+        return element;
+    }
+
+    /**
+     * Builds the elements of an event renderer from its events.
+     */
+    @Nullable
+    private UIElement renderEvents(@Nonnull final UIComponent component, @Nonnull final UIEventRenderer renderer) {
+        final boolean root = this.rootComponentElementPair.isEmpty();
+        if (root) {
+            this.rootComponentElementPair.setFirst(component);
+        }
+        final UIElementBuilder builder = new UIElementBuilder(getCurrentElement());
+        try {
+            renderer.render(component, new ElementEventContext(component, builder));
+        } catch (IOException ex) {
+            //Building elements never throws.
+            throw new IllegalStateException(ex);
+        }
+        if (root) {
+            this.rootComponentElementPair.setSecond(builder.getFirstElement());
+        }
+        return builder.getFirstElement();
+    }
+
+    private void onRendered(@Nonnull final UIComponent component, @Nullable final UIElement element) {
+        if (renderHook != null && element != null) {
+            renderHook.rendered(component, element);
+        }
+    }
+
+    /**
+     * Renders only the subtree of the component. The ancestors of the component are not rendered, only their elements
+     * are created, so that the subtree is rendered within its ancestor context, without its siblings.
+     *
+     * @param component the component to render
+     *
+     * @return the element of the component, attached to the elements of its ancestors
+     */
+    @Nullable
+    UIElement renderSubtree(@Nonnull final UIComponent component) {
+        checkState(this.currentComponentElementPairStack.isEmpty(), "A render is already in progress");
+
+        final Deque<UIComponent> ancestors = new ArrayDeque<>();
+        for (UIComponent ancestor = component.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+            ancestors.push(ancestor);
+        }
+        try {
+            for (UIComponent ancestor : ancestors) {
+                final UIElement element = renderingManager.getRenderer(ancestor).createElement(ancestor, getCurrentElement());
+                setRootIfEmpty(ancestor, element);
+                this.currentComponentElementPairStack.push(new UIPair<>(ancestor, element));
+            }
+            return render(component);
+        } finally {
+            this.currentComponentElementPairStack.clear();
+        }
+    }
+
+    /**
+     * Renders the component subtree detached, within the ancestry of the component: the current component is the
+     * parent of the component, and the rendered element has no parent element.
+     *
+     * @param component the component to render
+     * @param rootElement the element rendered for the root component, if any. Ignored if the component is the root.
+     */
+    @Nullable
+    UIElement renderDetached(@Nonnull final UIComponent component, @Nullable final UIElement rootElement) {
+        return renderDetached(component, rootElement, null);
+    }
+
+    /**
+     * Renders the component subtree within the ancestry of the component, the current element being the parent
+     * element, e.g. an element standing for the enclosing markup and carrying its namespace.
+     *
+     * @param component the component to render
+     * @param rootElement the element rendered for the root component, if any. Ignored if the component is the root.
+     * @param parentElement the parent element of the rendered element, null to render it detached
+     */
+    @Nullable
+    UIElement renderDetached(@Nonnull final UIComponent component, @Nullable final UIElement rootElement,
+            @Nullable final UIElement parentElement) {
+        checkState(this.currentComponentElementPairStack.isEmpty(), "A render is already in progress");
+
+        if (component.getParent() != null) {
+            this.rootComponentElementPair.setFirst(component.getRoot());
+            this.rootComponentElementPair.setSecond(rootElement);
+        }
+        this.currentComponentElementPairStack.push(new UIPair<>(component.getParent(), parentElement));
+        try {
+            return render(component);
+        } finally {
+            this.currentComponentElementPairStack.clear();
+            this.rootComponentElementPair.setFirst(null);
+            this.rootComponentElementPair.setSecond(null);
+        }
+    }
+
+    private void setRootIfEmpty(@Nonnull final UIComponent component, @Nullable final UIElement element) {
+        if (this.rootComponentElementPair.isEmpty()) {
+            //set the current and the root to current.
+            this.rootComponentElementPair.setFirst(component);
+            this.rootComponentElementPair.setSecond(element);
+        }
+    }
+
+    /**
+     * Clears every reference to the last render, so that the context can be reused.
+     */
+    void reset() {
+        this.rootComponentElementPair.setFirst(null);
+        this.rootComponentElementPair.setSecond(null);
+        this.currentComponentElementPairStack.clear();
+        this.parallelism = 1;
+        this.renderHook = null;
+    }
+
+    @Override
+    @Nonnull
+    public List<UIElement> renderIndependent(@Nonnull final List<? extends UIComponent> components) {
+        checkNotNull(components, "Components to render must not be null");
+        checkState(!this.currentComponentElementPairStack.isEmpty(), "Independent subtrees must be rendered within a component");
+
+        final int count = components.size();
+        if (parallelism == 1 || count < 2 || renderHook != null) {
+            final List<UIElement> elements = Lists.newArrayListWithCapacity(count);
+            for (UIComponent component : components) {
+                elements.add(render(component));
+            }
+            return elements;
+        }
+        //The lazy index of the component tree must be built before the tree is shared by the subtree renders.
+        components.get(0).getCanonicalId();
+        final UIElement[] elements = new UIElement[count];
+        final UIElement[] standIns = new UIElement[count];
+        for (int start = 0; start < count; start += parallelism) {
+            final int end = Math.min(count, start + parallelism);
+            final List<SubtreeRenderTask> tasks = Lists.newArrayListWithCapacity(end - start);
+            for (int i = start; i < end; i++) {
+                tasks.add(new SubtreeRenderTask(new UIRendererContextImpl(this), components.get(i)));
+            }
+            renderingManager.invokeAll(tasks);
+            for (int i = start; i < end; i++) {
+                elements[i] = tasks.get(i - start).getRawResult();
+                standIns[i] = tasks.get(i - start).context.getCurrentElement();
+            }
+        }
+        //Stitch the subtrees in their original order.
+        final UIElement parentElement = getCurrentElement();
+        if (parentElement != null) {
+            for (int i = 0; i < count; i++) {
+                final UIElement element = elements[i];
+                if (element != null
+                        && (element.getParentElement() == null || element.getParentElement() == standIns[i])) {
+                    element.detach();
+                    parentElement.appendChild(element);
+                }
+            }
+        }
+        return Arrays.asList(elements);
+    }
+
+    private void onRenderComplete() {
+        checkState(!this.currentComponentElementPairStack.isEmpty(), "There is no current component under render");
+        this.currentComponentElementPairStack.pop();
+    }
+
+    @Override
+    @Nullable
+    public UIComponent getRootComponent() {
+        return rootComponentElementPair.getFirst();
+    }
+
+    @Override
+    @Nullable
+    public UIElement getRootElement() {
+        return rootComponentElementPair.getSecond();
+    }
+
+    @Override
+    @Nullable
+    public UIComponent findComponent(@Nonnull String canonicalId) {
+        checkNotNull(canonicalId, "Component id must not be null");
+
+        final UIComponent component = canonicalId.trim().startsWith(":") ? getRootComponent() : getCurrentComponent();
+        return component != null ? component.findComponent(canonicalId) : null;
+    }
+
+    @Nullable
+    @Override
+    public UIComponent findComponent(@Nonnull final UIComponentId componentId) {
+        checkNotNull(componentId, "Component id must not be null");
+
+        final String canonicalId = componentId.getCanonicalId();
+        return findComponent(componentId.isAbsolute() ? ":" + canonicalId : canonicalId);
+    }
+
+    /**
+     * Observes the render of every component of a context.
+     */
+    interface RenderHook {
+
+        /**
+         * Returns a detached element to use as-is for the component, instead of rendering it.
+         */
+        @Nullable
+        UIElement reuse(@Nonnull UIComponent component);
+
+        /**
+         * Called once the element of the component has been rendered, or reused.
+         */
+        void rendered(@Nonnull UIComponent component, @Nonnull UIElement element);
+    }
+
+    /**
+     * The event context of an event renderer, whose events build elements.
+     */
+    private final class ElementEventContext implements UIEventContext {
+
+        private final UIComponent component;
+        private final UIElementBuilder builder;
+
+        private ElementEventContext(@Nonnull final UIComponent component, @Nonnull final UIElementBuilder builder) {
+            this.component = component;
+            this.builder = builder;
+        }
+
+        @Override
+        public UIComponent getCurrentComponent() {
+            return component;
+        }
+
+        @Override
+        public UIComponent getRootComponent() {
+            return UIRendererContextImpl.this.getRootComponent();
+        }
+
+        @Override
+        public UIComponent findComponent(@Nonnull final String id) {
+            checkNotNull(id, "Component id must not be null");
+
+            return component.findComponent(id);
+        }
+
+        @Override
+        public void render(@Nonnull final UIComponent child) {
+            currentComponentElementPairStack.push(new UIPair<>(component, builder.getCurrentElement()));
+            try {
+                UIRendererContextImpl.this.render(child);
+            } finally {
+                onRenderComplete();
+            }
+        }
+
+        /**
+         * Nothing is written while building elements.
+         */
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void startElement(@Nonnull final String name) {
+            builder.startElement(name);
+        }
+
+        @Override
+        public void startElement(@Nullable final String prefix, @Nonnull final String name) {
+            builder.startElement(prefix, name);
+        }
+
+        @Override
+        public void targetNamespace(@Nonnull final UINamespace namespace) {
+            builder.targetNamespace(namespace);
+        }
+
+        @Override
+        public void declareNamespace(@Nonnull final UINamespace namespace) {
+            builder.declareNamespace(namespace);
+        }
+
+        @Override
+        public void attribute(@Nonnull final String name, @Nonnull final String value) {
+            builder.attribute(name, value);
+        }
+
+        @Override
+        public void text(@Nonnull final String content) {
+            builder.text(content);
+        }
+
+        @Override
+        public void fragment(@Nonnull final String markup) {
+            builder.fragment(markup);
+        }
+
+        @Override
+        public void endElement() {
+            builder.endElement();
+        }
+    }
+
+    private static final class SubtreeRenderTask extends RecursiveTask<UIElement> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final UIRendererContextImpl context;
+        private final UIComponent component;
+
+        private SubtreeRenderTask(@Nonnull final UIRendererContextImpl context, @Nonnull final UIComponent component) {
+            this.context = context;
+            this.component = component;
+        }
+
+        @Override
+        protected UIElement compute() {
+            return context.render(component);
+        }
+    }
+}
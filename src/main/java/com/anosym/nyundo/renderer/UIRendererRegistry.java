@@ -0,0 +1,162 @@
+package com.anosym.nyundo.renderer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.anosym.nyundo.annotation.Component;
+import com.anosym.nyundo.annotation.Renderer;
+import com.anosym.nyundo.component.UIComponent;
+import com.anosym.nyundo.util.UIRendererKey;
+import com.anosym.nyundo.util.UIRendererUtil;
+import com.google.common.collect.ImmutableMap;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.atteo.classindex.ClassIndex;
+
+/**
+ * The known renderers and components, keyed by their {@link UIRendererKey}.
+ *
+ * The registry can be built from the compile-time class index of {@link Renderer} and {@link Component} classes, in
+ * which case no CDI container is required:
+ *
+ * <pre>
+ *  <code>
+ *   UIRenderingManager renderingManager = new UIRenderingManager(UIRendererRegistry.fromClassIndex());
+ *  </code>
+ * </pre>
+ *
+ * @author mochieng
+ */
+public final class UIRendererRegistry {
+
+    private final Map<UIRendererKey, UIRenderer> renderers;
+    private final Map<UIRendererKey, Class<? extends UIComponent>> components;
+
+    private UIRendererRegistry(@Nonnull final Map<UIRendererKey, UIRenderer> renderers,
+            @Nonnull final Map<UIRendererKey, Class<? extends UIComponent>> components) {
+        this.renderers = renderers;
+        this.components = components;
+    }
+
+    /**
+     * Builds the registry from the specified renderer instances, and the class index of components.
+     *
+     * @param renderers
+     *
+     * @return
+     */
+    @Nonnull
+    public static UIRendererRegistry of(@Nonnull final Iterable<? extends UIRenderer> renderers) {
+        checkNotNull(renderers, "The renderers must not be null");
+
+        final ClassLoader classLoader = UIRendererRegistry.class.getClassLoader();
+        return new UIRendererRegistry(buildRenderers(renderers), buildComponents(classLoader));
+    }
+
+    @Nonnull
+    public static UIRendererRegistry fromClassIndex() {
+        return fromClassIndex(UIRendererRegistry.class.getClassLoader());
+    }
+
+    /**
+     * Builds the registry from the class index of the specified classloader. Every concrete {@link Renderer} class must
+     * have a public no-arg constructor.
+     *
+     * @param classLoader
+     *
+     * @return
+     */
+    @Nonnull
+    public static UIRendererRegistry fromClassIndex(@Nonnull final ClassLoader classLoader) {
+        checkNotNull(classLoader, "The classloader must not be null");
+
+        final ImmutableMap.Builder<UIRendererKey, UIRenderer> renderers = ImmutableMap.builder();
+        for (Class<?> rendererClass : ClassIndex.getAnnotated(Renderer.class, classLoader)) {
+            if (isConcrete(rendererClass) && UIRenderer.class.isAssignableFrom(rendererClass)) {
+                final UIRenderer renderer = newRenderer(rendererClass.asSubclass(UIRenderer.class));
+                renderers.put(UIRendererUtil.getRendererKey(renderer), renderer);
+            }
+        }
+        return new UIRendererRegistry(renderers.build(), buildComponents(classLoader));
+    }
+
+    @Nullable
+    public UIRenderer getRenderer(@Nonnull final UIRendererKey rendererKey) {
+        return renderers.get(rendererKey);
+    }
+
+    /**
+     * Returns the component class for the specified namespace and component name (its xml tag).
+     *
+     * @param namespace
+     * @param componentName
+     *
+     * @return
+     */
+    @Nullable
+    public Class<? extends UIComponent> getComponentClass(@Nonnull final String namespace, @Nonnull final String componentName) {
+        return components.get(new UIRendererKey(namespace, componentName));
+    }
+
+    @Nonnull
+    public Map<UIRendererKey, UIRenderer> getRenderers() {
+        return renderers;
+    }
+
+    @Nonnull
+    public Map<UIRendererKey, Class<? extends UIComponent>> getComponents() {
+        return components;
+    }
+
+    @Nonnull
+    private static Map<UIRendererKey, UIRenderer> buildRenderers(@Nonnull final Iterable<? extends UIRenderer> renderers) {
+        final ImmutableMap.Builder<UIRendererKey, UIRenderer> builder = ImmutableMap.builder();
+        for (UIRenderer renderer : renderers) {
+            builder.put(UIRendererUtil.getRendererKey(renderer), renderer);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Only components which declare their own {@link Component} annotation are registered, subclasses inheriting the
+     * annotation would otherwise claim the same xml tag.
+     */
+    @Nonnull
+    private static Map<UIRendererKey, Class<? extends UIComponent>> buildComponents(@Nonnull final ClassLoader classLoader) {
+        final ImmutableMap.Builder<UIRendererKey, Class<? extends UIComponent>> builder = ImmutableMap.builder();
+        for (Class<?> componentClass : ClassIndex.getAnnotated(Component.class, classLoader)) {
+            if (isConcrete(componentClass) && UIComponent.class.isAssignableFrom(componentClass)
+                    && declaresComponent(componentClass)) {
+                final Component componentId = componentClass.getAnnotation(Component.class);
+                final Class<? extends UIComponent> uiComponentClass = componentClass.asSubclass(UIComponent.class);
+                builder.put(new UIRendererKey(componentId.namespace(), UIRendererUtil.getComponentName(uiComponentClass, componentId)),
+                        uiComponentClass);
+            }
+        }
+        return builder.build();
+    }
+
+    private static boolean declaresComponent(@Nonnull final Class<?> componentClass) {
+        for (Annotation annotation : componentClass.getDeclaredAnnotations()) {
+            if (annotation.annotationType() == Component.class) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isConcrete(@Nonnull final Class<?> clazz) {
+        return !clazz.isInterface() && !Modifier.isAbstract(clazz.getModifiers());
+    }
+
+    @Nonnull
+    private static UIRenderer newRenderer(@Nonnull final Class<? extends UIRenderer> rendererClass) {
+        try {
+            return rendererClass.newInstance();
+        } catch (InstantiationException | IllegalAccessException ex) {
+            throw new IllegalStateException("The renderer (" + rendererClass + ") must define a public no-arg constructor", ex);
+        }
+    }
+}
@@ -1,25 +1,29 @@
 package com.anosym.nyundo.renderer;
 
-import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
-import com.anosym.nyundo.UIStringable;
 import com.anosym.nyundo.component.UIComponent;
 import com.anosym.nyundo.element.UIElement;
-import com.anosym.nyundo.util.UIComponentId;
+import com.anosym.nyundo.element.UIFlatDocument;
+import com.anosym.nyundo.element.UIMarkupHandler;
+import com.anosym.nyundo.element.UIMarkupSerializer;
+import com.anosym.nyundo.element.UIRenderMode;
 import com.anosym.nyundo.util.UIPair;
 import com.anosym.nyundo.util.UIRendererKey;
 import com.anosym.nyundo.util.UIRendererUtil;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
-import java.util.Deque;
+import com.google.common.base.Optional;
+import java.io.IOException;
 import java.util.List;
-import java.util.Map;
-import java.util.Stack;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.Any;
 import javax.enterprise.inject.Instance;
@@ -30,9 +34,12 @@ import javax.inject.Inject;
  * @author mochieng
  */
 @ApplicationScoped
-public class UIRenderingManager {
+public class UIRenderingManager implements AutoCloseable {
 
-    private static final ThreadLocal<UIRendererContext> CURRENT_RENDERER_CONTEXT = new ThreadLocal<>();
+    /**
+     * The maximum number of idle renderer contexts kept for reuse.
+     */
+    private static final int MAX_POOLED_CONTEXTS = 64;
     /**
      * A list of all known renderers.
      */
@@ -42,149 +49,277 @@ public class UIRenderingManager {
     /**
      * Faster lookup by renderer key.
      */
-    private Map<UIRendererKey, UIRenderer> rendererCache;
+    private UIRendererRegistry rendererRegistry;
+    /**
+     * The renderer of every component class, resolved once per class. Absent if the class has no renderer.
+     */
+    private ClassValue<Optional<UIRenderer>> rendererDispatch;
+    /**
+     * Idle renderer contexts, recycled from closed sessions.
+     */
+    private final Queue<UIRendererContextImpl> contextPool = new ArrayBlockingQueue<>(MAX_POOLED_CONTEXTS);
+    /**
+     * Renders the independent subtrees of parallel render sessions. Created by the first parallel render.
+     */
+    private ForkJoinPool forkJoinPool;
+    private boolean closed;
+    /**
+     * The rendered markup of {@link com.anosym.nyundo.annotation.Cacheable} components.
+     */
+    private final UIFragmentCache fragmentCache;
+
+    /**
+     * Used by the CDI container, the renderers are set once injected.
+     */
+    public UIRenderingManager() {
+        this.fragmentCache = new UIFragmentCache();
+    }
+
+    /**
+     * Creates a rendering manager outside of a CDI container.
+     *
+     * @param rendererRegistry
+     */
+    public UIRenderingManager(@Nonnull final UIRendererRegistry rendererRegistry) {
+        this(rendererRegistry, new UIFragmentCache());
+    }
+
+    /**
+     * Creates a rendering manager outside of a CDI container, caching fragments in the specified cache.
+     *
+     * @param rendererRegistry
+     * @param fragmentCache
+     */
+    public UIRenderingManager(@Nonnull final UIRendererRegistry rendererRegistry,
+            @Nonnull final UIFragmentCache fragmentCache) {
+        this.fragmentCache = checkNotNull(fragmentCache, "The fragment cache must not be null");
+        setRendererRegistry(checkNotNull(rendererRegistry, "The renderer registry must not be null"));
+    }
 
     @PostConstruct
     void setRenderers() {
-        ImmutableMap.Builder<UIRendererKey, UIRenderer> builder = ImmutableMap.builder();
-        for (UIRenderer renderer : renderers) {
-            builder.put(UIRendererUtil.getRendererKey(renderer), renderer);
-        }
-        rendererCache = builder.build();
+        setRendererRegistry(UIRendererRegistry.of(renderers));
+    }
+
+    @Nonnull
+    public UIRendererRegistry getRendererRegistry() {
+        return rendererRegistry;
+    }
+
+    @Nonnull
+    public UIFragmentCache getFragmentCache() {
+        return fragmentCache;
+    }
+
+    private void setRendererRegistry(@Nonnull final UIRendererRegistry rendererRegistry) {
+        this.rendererRegistry = rendererRegistry;
+        this.rendererDispatch = new ClassValue<Optional<UIRenderer>>() {
+
+            @Override
+            protected Optional<UIRenderer> computeValue(Class<?> type) {
+                return resolveRenderer(type.asSubclass(UIComponent.class));
+            }
+        };
     }
 
+    /**
+     * Renders the component within its own render session.
+     *
+     * @param component
+     *
+     * @return
+     */
     @Nonnull
     public UIElement render(@Nonnull final UIComponent component) {
         checkNotNull(component, "The component to render must not be null");
-        UIRendererContext currentContext = CURRENT_RENDERER_CONTEXT.get();
 
-        if (currentContext == null) {
-            //Create new context if none exists.
-            currentContext = new UIRendererContextImpl(this);
-            CURRENT_RENDERER_CONTEXT.set(currentContext);
+        try (UIRenderSession session = openSession()) {
+            return session.render(component);
         }
-        return currentContext.render(component);
     }
 
-    @Nonnull
-    private UIRenderer getRenderer(@Nonnull final UIComponent component) {
-        final UIPair<UIRendererKey, UIRendererKey> rendererKeys = UIRendererUtil.getRendererKey(component);
-        if (rendererCache.containsKey(rendererKeys.getFirst())) {
-            return rendererCache.get(rendererKeys.getFirst());
-        }
-        if (rendererCache.containsKey(rendererKeys.getSecond())) {
-            return rendererCache.get(rendererKeys.getSecond());
+    /**
+     * Renders the component as markup events to the handler, without building its element tree. Only the subtrees of
+     * components whose renderer is not an {@link UIEventRenderer} are built, one at a time.
+     *
+     * @param component
+     * @param handler
+     *
+     * @throws IOException
+     */
+    public void render(@Nonnull final UIComponent component, @Nonnull final UIMarkupHandler handler) throws IOException {
+        checkNotNull(component, "The component to render must not be null");
+        checkNotNull(handler, "The markup handler must not be null");
+
+        try (UIEventContextImpl context = new UIEventContextImpl(this, handler)) {
+            context.render(component);
         }
-        throw new IllegalArgumentException("The following component (" + component + ") with UIRendererKey: (" + rendererKeys + ") does not have renderer defined");
     }
 
-    private static final class UIRendererContextImpl extends UIStringable implements UIRendererContext {
-
-        private final UIPair<UIComponent, UIElement> rootComponentElementPair;
-        private final Stack<UIPair<UIComponent, UIElement>> currentComponentElementPairStack;
-        private final UIRenderingManager renderingManager;
+    /**
+     * Renders the component straight to the output, see {@link #render(UIComponent, UIMarkupHandler)}.
+     *
+     * Rendering to an {@link com.anosym.nyundo.element.UIUtf8Output} is progressive: the document is written in chunks
+     * bounded by the output buffer as rendering proceeds, and at every flush point marked by event renderers (see
+     * {@link UIEventContext#flush()}). The render blocks while the client is slow to read.
+     *
+     * @param component
+     * @param out
+     * @param mode
+     *
+     * @throws IOException
+     */
+    public void renderTo(@Nonnull final UIComponent component, @Nonnull final Appendable out,
+            @Nonnull final UIRenderMode mode) throws IOException {
+        render(component, new UIMarkupSerializer(out, mode));
+    }
 
-        public UIRendererContextImpl(final UIRenderingManager renderingManager) {
-            this.renderingManager = renderingManager;
-            this.rootComponentElementPair = new UIPair<>();
-            this.currentComponentElementPairStack = new Stack<>();
+    /**
+     * Renders the component into a new {@link UIFlatDocument}, see {@link #render(UIComponent, UIMarkupHandler)}.
+     * Suited to very large renders, as the document holds its nodes in a handful of large buffers.
+     *
+     * @param component
+     *
+     * @return
+     */
+    @Nonnull
+    public UIFlatDocument renderFlat(@Nonnull final UIComponent component) {
+        final UIFlatDocument document = new UIFlatDocument();
+        try {
+            render(component, document.newBuilder());
+        } catch (IOException ex) {
+            //The document builder never throws.
+            throw new IllegalStateException(ex);
         }
+        return document;
+    }
 
-        @Override
-        @Nullable
-        public UIComponent getCurrentComponent() {
-            if (!currentComponentElementPairStack.isEmpty()) {
-                return currentComponentElementPairStack.peek().getFirst();
-            }
-            return null;
+    /**
+     * Renders only the subtree of the component with the specified id within its own render session, see
+     * {@link UIRenderSession#renderSubtree(UIComponent, java.lang.String)}.
+     *
+     * @param rootComponent
+     * @param id
+     *
+     * @return
+     */
+    @Nonnull
+    public UIElement renderSubtree(@Nonnull final UIComponent rootComponent, @Nonnull final String id) {
+        try (UIRenderSession session = openSession()) {
+            return session.renderSubtree(rootComponent, id);
         }
+    }
 
-        @Override
-        @Nullable
-        public UIElement getCurrentElement() {
-            if (!currentComponentElementPairStack.isEmpty()) {
-                return currentComponentElementPairStack.peek().getSecond();
-            }
-            return null;
-        }
+    /**
+     * Opens a new render session. The session must be closed once rendering completes, so that its context can be
+     * recycled.
+     *
+     * <pre>
+     *  <code>
+     *   try (UIRenderSession session = renderingManager.openSession()) {
+     *      UIElement root = session.render(rootComponent);
+     *      ...
+     *   }
+     *  </code>
+     * </pre>
+     *
+     * @return
+     */
+    @Nonnull
+    public UIRenderSession openSession() {
+        return new UIRenderSession(this, acquireContext());
+    }
 
-        @Override
-        public UIElement render(@Nonnull final UIComponent component) {
-            checkNotNull(component, "Component to render must not be null");
-            final UIRenderer renderer = renderingManager.getRenderer(component);
-            final UIPair<UIComponent, UIElement> current = new UIPair<>(component, renderer.createElement(component, getCurrentElement()));
-            if (this.rootComponentElementPair.isEmpty()) {
-                //set the current and the root to current.
-                this.rootComponentElementPair.setFirst(component);
-                this.rootComponentElementPair.setSecond(current.getSecond());
-            }
-            this.currentComponentElementPairStack.push(current);
-            try {
-                return renderer.render(component, this);
-            } finally {
-                onRenderComplete();
-            }
-        }
+    /**
+     * Opens a new incremental session, which renders a component tree once and then only its changes. The session
+     * holds its context until closed.
+     *
+     * @return
+     */
+    @Nonnull
+    public UIIncrementalSession openIncrementalSession() {
+        return new UIIncrementalSession(this, acquireContext());
+    }
 
-        private void onRenderComplete() {
-            checkState(!this.currentComponentElementPairStack.isEmpty(), "There is no current component under render");
-            this.currentComponentElementPairStack.pop();
-        }
+    /**
+     * Takes a context from the pool, to be returned through {@link #releaseContext(UIRendererContextImpl)}.
+     */
+    @Nonnull
+    UIRendererContextImpl acquireContext() {
+        final UIRendererContextImpl context = contextPool.poll();
+        return context != null ? context : new UIRendererContextImpl(this);
+    }
 
-        @Override
-        @Nullable
-        public UIComponent getRootComponent() {
-            return rootComponentElementPair.getFirst();
-        }
+    /**
+     * Called by a closing session, or event render, to return its context to the pool.
+     */
+    void releaseContext(@Nonnull final UIRendererContextImpl context) {
+        context.reset();
+        contextPool.offer(context);
+    }
+
+    /**
+     * Runs the subtree render tasks within the rendering pool, and waits for their completion.
+     */
+    void invokeAll(@Nonnull final List<? extends ForkJoinTask<?>> tasks) {
+        if (ForkJoinTask.inForkJoinPool()) {
+            ForkJoinTask.invokeAll(tasks);
+        } else {
+            getForkJoinPool().invoke(new RecursiveAction() {
+
+                private static final long serialVersionUID = 1L;
 
-        @Override
-        @Nullable
-        public UIElement getRootElement() {
-            return rootComponentElementPair.getSecond();
+                @Override
+                protected void compute() {
+                    ForkJoinTask.invokeAll(tasks);
+                }
+            });
         }
+    }
 
-        @Override
-        @Nullable
-        public UIComponent findComponent(@Nonnull String canonicalId) {
-            UIComponentId componentId = UIComponentId.fromCanonicalId(canonicalId);
-            return findComponent(componentId);
+    @Nonnull
+    private synchronized ForkJoinPool getForkJoinPool() {
+        checkState(!closed, "The rendering manager has been closed");
+        if (forkJoinPool == null) {
+            forkJoinPool = new ForkJoinPool();
         }
+        return forkJoinPool;
+    }
 
-        @Nullable
-        @Override
-        public UIComponent findComponent(@Nonnull final UIComponentId componentId) {
-            final UIComponent component;
-            if (componentId.isAbsolute()) {
-                component = getRootComponent();
-            } else {
-                component = getCurrentComponent();
-            }
-            if (component != null) {
-                final Deque<UIComponentId> parentQueue = componentId.getAncestryStack();
-                return searchChildComponent(ImmutableList.of(component), parentQueue);
-            }
-            return null;
+    /**
+     * Shuts the rendering pool down, if any parallel render created it. Parallel renders fail afterwards, while the
+     * renders on the calling thread remain available.
+     */
+    @Override
+    @PreDestroy
+    public synchronized void close() {
+        closed = true;
+        if (forkJoinPool != null) {
+            forkJoinPool.shutdown();
+            forkJoinPool = null;
         }
+    }
 
-        @Nullable
-        private UIComponent searchChildComponent(@Nonnull final List<UIComponent> components,
-                @Nonnull final Deque<UIComponentId> componentIdParentStack) {
-            checkNotNull(components, "Componentlists must not be null");
-            checkArgument(!components.isEmpty(), "Componentlists must not be empty");
-            checkNotNull(componentIdParentStack, "Component id to search must not be null");
-
-            if (!componentIdParentStack.isEmpty()) {
-                final UIComponentId possibleNext = componentIdParentStack.pop();
-                for (UIComponent child : components) {
-                    if (child.getComponentId().equals(possibleNext)) {
-                        return searchChildComponent(ImmutableList.of(child), componentIdParentStack);
-                    }
-                }
-                //if we ever reach here, we did not find anything
-                return null;
-            }
-            return components.get(0);
+    @Nonnull
+    UIRenderer getRenderer(@Nonnull final UIComponent component) {
+        final Optional<UIRenderer> renderer = rendererDispatch.get(component.getClass());
+        if (!renderer.isPresent()) {
+            final UIPair<UIRendererKey, UIRendererKey> rendererKeys = UIRendererUtil.getRendererKey(component);
+            throw new IllegalStateException("The component class (" + component.getClass().getName()
+                    + ") has no renderer defined, neither for its name (" + rendererKeys.getFirst()
+                    + ") nor for its namespace (" + rendererKeys.getSecond() + ")");
         }
+        return renderer.get();
+    }
 
+    /**
+     * Returns the renderer for the component class, if any is defined.
+     */
+    @Nonnull
+    private Optional<UIRenderer> resolveRenderer(@Nonnull final Class<? extends UIComponent> componentClass) {
+        final UIPair<UIRendererKey, UIRendererKey> rendererKeys = UIRendererUtil.getRendererKey(componentClass);
+        final UIRenderer renderer = rendererRegistry.getRenderer(rendererKeys.getFirst());
+        return renderer != null ? Optional.of(renderer)
+                : Optional.fromNullable(rendererRegistry.getRenderer(rendererKeys.getSecond()));
     }
 }
@@ -0,0 +1,148 @@
+package com.anosym.nyundo.template;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.anosym.nyundo.element.UIRepresentable;
+import com.anosym.nyundo.element.UIUtf8Output;
+import com.anosym.nyundo.element.UIXmlEscaper;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+
+/**
+ * A compiled component template.
+ *
+ * The template markup is parsed once by {@link UITemplateCompiler} into a render plan of constant markup chunks and
+ * slots. Applying the template only interleaves the constant chunks with the slot values, the static markup is never
+ * re-parsed nor turned into {@link com.anosym.nyundo.element.UIElement}s.
+ *
+ * Within the template markup, {@code ${name}} designates an attribute slot, and {@code #{children}} the slot where the
+ * children of the component are rendered.
+ *
+ * @author mochieng
+ */
+public final class UITemplate {
+
+    private final String name;
+    private final List<Segment> segments;
+    private final Set<String> attributeNames;
+
+    UITemplate(@Nonnull final String name, @Nonnull final List<Segment> segments) {
+        checkArgument(!Strings.isNullOrEmpty(name), "The template name must not be null or empty");
+        checkNotNull(segments, "The template segments must not be null");
+
+        this.name = name;
+        this.segments = ImmutableList.copyOf(segments);
+        final ImmutableSet.Builder<String> names = ImmutableSet.builder();
+        for (Segment segment : this.segments) {
+            if (segment.type == SegmentType.ATTRIBUTE) {
+                names.add(segment.value);
+            }
+        }
+        this.attributeNames = names.build();
+    }
+
+    @Nonnull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The names of the attribute slots defined in this template.
+     *
+     * @return
+     */
+    @Nonnull
+    public Set<String> getAttributeNames() {
+        return attributeNames;
+    }
+
+    /**
+     * Renders this template into the output. Attribute slots without a value are rendered empty, slot values are
+     * xml escaped.
+     *
+     * @param out
+     * @param attributes
+     * @param children
+     *
+     * @throws IOException
+     */
+    public void apply(@Nonnull final Appendable out, @Nonnull final Map<String, ?> attributes,
+            @Nonnull final Iterable<? extends UIRepresentable> children) throws IOException {
+        checkNotNull(out, "The template output must not be null");
+        checkNotNull(attributes, "The template attributes must not be null");
+        checkNotNull(children, "The template children must not be null");
+
+        for (Segment segment : segments) {
+            switch (segment.type) {
+                case CONSTANT:
+                    if (out instanceof UIUtf8Output) {
+                        ((UIUtf8Output) out).appendEncoded(segment.encodedValue);
+                    } else {
+                        out.append(segment.value);
+                    }
+                    break;
+                case ATTRIBUTE:
+                    final Object value = attributes.get(segment.value);
+                    if (value != null) {
+                        UIXmlEscaper.escapeAttribute(out, String.valueOf(value));
+                    }
+                    break;
+                case CHILDREN:
+                    for (UIRepresentable child : children) {
+                        child.renderTo(out);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown template segment: " + segment.type);
+            }
+        }
+    }
+
+    public void apply(@Nonnull final Appendable out, @Nonnull final Map<String, ?> attributes) throws IOException {
+        apply(out, attributes, Collections.<UIRepresentable>emptyList());
+    }
+
+    enum SegmentType {
+
+        CONSTANT,
+        ATTRIBUTE,
+        CHILDREN;
+    }
+
+    static final class Segment {
+
+        private final SegmentType type;
+        /**
+         * The markup for constant segments, the attribute name for attribute slots.
+         */
+        private final String value;
+        private final byte[] encodedValue;
+
+        private Segment(@Nonnull final SegmentType type, @Nonnull final String value) {
+            this.type = type;
+            this.value = value;
+            this.encodedValue = type == SegmentType.CONSTANT ? value.getBytes(StandardCharsets.UTF_8) : null;
+        }
+
+        static Segment constant(@Nonnull final String markup) {
+            return new Segment(SegmentType.CONSTANT, markup);
+        }
+
+        static Segment attribute(@Nonnull final String attributeName) {
+            return new Segment(SegmentType.ATTRIBUTE, attributeName);
+        }
+
+        static Segment children() {
+            return new Segment(SegmentType.CHILDREN, "");
+        }
+    }
+}
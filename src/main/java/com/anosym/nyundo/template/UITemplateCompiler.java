@@ -0,0 +1,61 @@
+package com.anosym.nyundo.template;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.anosym.nyundo.template.UITemplate.Segment;
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * Compiles template markup into a {@link UITemplate}.
+ *
+ * @author mochieng
+ */
+public final class UITemplateCompiler {
+
+    private static final String ATTRIBUTE_SLOT_START = "${";
+    private static final String CHILDREN_SLOT = "#{children}";
+    private static final String SLOT_END = "}";
+
+    private UITemplateCompiler() {
+    }
+
+    @Nonnull
+    public static UITemplate compile(@Nonnull final String name, @Nonnull final String markup) {
+        checkArgument(!Strings.isNullOrEmpty(name), "The template name must not be null or empty");
+        checkNotNull(markup, "The template markup must not be null");
+
+        final List<Segment> segments = Lists.newArrayList();
+        final StringBuilder constant = new StringBuilder();
+        int index = 0;
+        while (index < markup.length()) {
+            if (markup.startsWith(CHILDREN_SLOT, index)) {
+                addConstant(segments, constant);
+                segments.add(Segment.children());
+                index += CHILDREN_SLOT.length();
+            } else if (markup.startsWith(ATTRIBUTE_SLOT_START, index)) {
+                final int end = markup.indexOf(SLOT_END, index);
+                checkArgument(end > 0, "Template (%s): unterminated attribute slot at %s", name, index);
+                final String attributeName = markup.substring(index + ATTRIBUTE_SLOT_START.length(), end).trim();
+                checkArgument(!attributeName.isEmpty(), "Template (%s): empty attribute slot at %s", name, index);
+                addConstant(segments, constant);
+                segments.add(Segment.attribute(attributeName));
+                index = end + SLOT_END.length();
+            } else {
+                constant.append(markup.charAt(index++));
+            }
+        }
+        addConstant(segments, constant);
+        return new UITemplate(name, segments);
+    }
+
+    private static void addConstant(@Nonnull final List<Segment> segments, @Nonnull final StringBuilder constant) {
+        if (constant.length() > 0) {
+            segments.add(Segment.constant(constant.toString()));
+            constant.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.anosym.nyundo.template;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.CaseFormat;
+import com.google.common.base.Strings;
+import com.google.common.io.Resources;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nonnull;
+
+/**
+ * Loads and caches the component templates defined within the {@value #TEMPLATE_DIRECTORY} classpath directory.
+ *
+ * A component tag maps to the template file of the same hyphenated name, i.e. {@code <nextButton .../>} is rendered
+ * from {@code html-components/next-button.html}. Every template is compiled only once.
+ *
+ * @author mochieng
+ */
+public final class UITemplateRegistry {
+
+    public static final String TEMPLATE_DIRECTORY = "html-components";
+
+    private static final String TEMPLATE_EXTENSION = ".html";
+
+    private final ClassLoader classLoader;
+    private final ConcurrentMap<String, UITemplate> templates;
+
+    public UITemplateRegistry(@Nonnull final ClassLoader classLoader) {
+        this.classLoader = checkNotNull(classLoader, "The template classloader must not be null");
+        this.templates = new ConcurrentHashMap<>();
+    }
+
+    public UITemplateRegistry() {
+        this(UITemplateRegistry.class.getClassLoader());
+    }
+
+    /**
+     * Returns the compiled template for the component tag.
+     *
+     * @param tagName the component tag, e.g. nextButton
+     *
+     * @return
+     *
+     * @throws IllegalArgumentException if no template is defined for the tag
+     */
+    @Nonnull
+    public UITemplate getTemplate(@Nonnull final String tagName) {
+        checkArgument(!Strings.isNullOrEmpty(tagName), "The template tag name must not be null or empty");
+
+        final UITemplate template = templates.get(tagName);
+        if (template != null) {
+            return template;
+        }
+        final UITemplate compiled = UITemplateCompiler.compile(tagName, loadMarkup(tagName));
+        final UITemplate existing = templates.putIfAbsent(tagName, compiled);
+        return existing != null ? existing : compiled;
+    }
+
+    @Nonnull
+    private String loadMarkup(@Nonnull final String tagName) {
+        final String resource = TEMPLATE_DIRECTORY + "/" + CaseFormat.LOWER_CAMEL.to(CaseFormat.LOWER_HYPHEN, tagName)
+                + TEMPLATE_EXTENSION;
+        final URL url = classLoader.getResource(resource);
+        checkArgument(url != null, "No template (%s) defined for the tag: %s", resource, tagName);
+        try {
+            return Resources.toString(url, StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to load the template: " + resource, ex);
+        }
+    }
+}
@@ -8,54 +8,152 @@ import com.anosym.nyundo.UIStringable;
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.Objects;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 /**
  * The comparison here is based on ancestral hierarchy.
  *
+ * Component ids are immutable. Their hash, depth and canonical id are computed once on creation. Ids obtained from
+ * {@link #of(com.anosym.nyundo.util.UIComponentId, java.lang.String, boolean)} or {@link #fromCanonicalId(java.lang.String)}
+ * are interned, so that equal ids are usually the same instance.
+ *
  * @author mochieng
  */
 public final class UIComponentId extends UIStringable {
 
     private static final Splitter PARENT_COMPONENT_ID_SPLITTER = Splitter.on(':').omitEmptyStrings().trimResults();
     private static final Joiner CANONICAL_COMPONENT_ID_JOINER = Joiner.on(":");
-    private UIComponentId parentId;
+    private static final int MAX_PARSED_CANONICAL_IDS = 10000;
+
+    private static final Interner<UIComponentId> COMPONENT_IDS = Interners.newWeakInterner();
+
+    private static final LoadingCache<String, UIComponentId> PARSED_CANONICAL_IDS = CacheBuilder.newBuilder()
+            .maximumSize(MAX_PARSED_CANONICAL_IDS)
+            .build(new CacheLoader<String, UIComponentId>() {
+
+                @Override
+                public UIComponentId load(String canonicalId) {
+                    return parseCanonicalId(canonicalId);
+                }
+            });
+
+    private final UIComponentId parentId;
     private final String simpleId;
-    private boolean absolute;
+    private final boolean absolute;
+    private final int depth;
+    private final int hash;
+    private final String canonicalId;
 
     public UIComponentId(@Nullable final UIComponentId parentId, @Nonnull final String simpleId, final boolean absolute) {
-        this(simpleId);
+        checkArgument(!Strings.isNullOrEmpty(simpleId), "UIComponentId simpleId must not be null or empty.");
         if (parentId != null) {
             checkState((absolute && parentId.isAbsolute()) || (!absolute),
                     "UIComponentId parent must be absolute if id is absolute");
         }
         this.parentId = parentId;
+        this.simpleId = simpleId;
         this.absolute = absolute;
+        this.depth = parentId == null ? 0 : parentId.depth + 1;
+        this.canonicalId = parentId == null ? simpleId : CANONICAL_COMPONENT_ID_JOINER.join(parentId.canonicalId, simpleId);
+        int h = 3;
+        h = 89 * h + (parentId == null ? 0 : parentId.hash);
+        h = 89 * h + simpleId.hashCode();
+        h = 89 * h + (absolute ? 1 : 0);
+        this.hash = h;
     }
 
     public UIComponentId(@Nonnull final String simpleId) {
-        checkArgument(!Strings.isNullOrEmpty(simpleId), "UIComponentId simpleId must not be null or empty.");
-        this.simpleId = simpleId;
+        this(null, simpleId, false);
+    }
+
+    /**
+     * Returns the interned component id.
+     *
+     * @param parentId
+     * @param simpleId
+     * @param absolute
+     *
+     * @return
+     */
+    @Nonnull
+    public static UIComponentId of(@Nullable final UIComponentId parentId, @Nonnull final String simpleId, final boolean absolute) {
+        return COMPONENT_IDS.intern(new UIComponentId(parentId, simpleId, absolute));
     }
 
     @Nonnull
-    @SuppressWarnings("null") //It cannot be null
+    public static UIComponentId of(@Nonnull final String simpleId) {
+        return of(null, simpleId, false);
+    }
+
+    /**
+     * Parses the canonical id. Repeated canonical ids resolve to the same instance.
+     *
+     * @param canonicalId
+     *
+     * @return
+     */
+    @Nonnull
     public static UIComponentId fromCanonicalId(@Nonnull final String canonicalId) {
         checkArgument(!Strings.isNullOrEmpty(canonicalId), "CanonicalId must not be null nor empty");
 
+        return PARSED_CANONICAL_IDS.getUnchecked(canonicalId);
+    }
+
+    @Nonnull
+    @SuppressWarnings("null") //It cannot be null
+    private static UIComponentId parseCanonicalId(@Nonnull final String canonicalId) {
         final boolean absolute = canonicalId.trim().startsWith(":");
         final Iterable<String> simpleIds = PARENT_COMPONENT_ID_SPLITTER.split(canonicalId);
         UIComponentId componentId = null;
         for (String simpleId : simpleIds) {
-            componentId = new UIComponentId(componentId, simpleId, absolute);
+            componentId = of(componentId, simpleId, absolute);
         }
+        checkArgument(componentId != null, "CanonicalId (%s) does not define any simple id", canonicalId);
         return componentId;
     }
 
+    /**
+     * Normalizes a canonical id, removing any empty or blank simple id. Absolute ids keep their leading ':'.
+     *
+     * @param canonicalId
+     *
+     * @return
+     */
+    @Nonnull
+    public static String normalizeCanonicalId(@Nonnull final String canonicalId) {
+        checkArgument(!Strings.isNullOrEmpty(canonicalId), "CanonicalId must not be null nor empty");
+
+        if (isNormalized(canonicalId)) {
+            return canonicalId;
+        }
+        final String normalizedId = CANONICAL_COMPONENT_ID_JOINER.join(PARENT_COMPONENT_ID_SPLITTER.split(canonicalId));
+        return canonicalId.trim().startsWith(":") ? ":" + normalizedId : normalizedId;
+    }
+
+    private static boolean isNormalized(@Nonnull final String canonicalId) {
+        final int length = canonicalId.length();
+        if (canonicalId.charAt(length - 1) == ':') {
+            return false;
+        }
+        char previous = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = canonicalId.charAt(i);
+            if (Character.isWhitespace(c) || (c == ':' && previous == ':')) {
+                return false;
+            }
+            previous = c;
+        }
+        return true;
+    }
+
     /**
      * True if the componentid has a reference to the most outer component.
      *
@@ -73,30 +171,29 @@ public final class UIComponentId extends UIStringable {
         return parentId;
     }
 
-    public void setParentId(@Nonnull final UIComponentId parentId) {
-        checkNotNull(parentId, "The parent componentId must not be null");
-
-        this.parentId = parentId;
-        this.absolute = this.parentId.absolute;
+    /**
+     * The number of ancestors of this id.
+     *
+     * @return
+     */
+    public int getDepth() {
+        return depth;
     }
 
     public final String getCanonicalId() {
-        if (this.parentId != null) {
-            return CANONICAL_COMPONENT_ID_JOINER.join(this.parentId.getCanonicalId(), this.simpleId);
-        }
-        return this.simpleId;
+        return canonicalId;
     }
 
     @Override
     public int hashCode() {
-        int hash = 3;
-        hash = 89 * hash + Objects.hashCode(this.parentId);
-        hash = 89 * hash + Objects.hashCode(this.simpleId);
         return hash;
     }
 
     @Override
     public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
         if (obj == null) {
             return false;
         }
@@ -104,10 +201,13 @@ public final class UIComponentId extends UIStringable {
             return false;
         }
         final UIComponentId other = (UIComponentId) obj;
-        if (!Objects.equals(this.parentId, other.parentId)) {
+        if (this.hash != other.hash || this.depth != other.depth || this.absolute != other.absolute) {
+            return false;
+        }
+        if (!this.simpleId.equals(other.simpleId)) {
             return false;
         }
-        return Objects.equals(this.simpleId, other.simpleId);
+        return this.parentId == null ? other.parentId == null : this.parentId.equals(other.parentId);
     }
 
     /**
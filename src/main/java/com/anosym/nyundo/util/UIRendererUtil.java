@@ -41,10 +41,38 @@ public final class UIRendererUtil {
      */
     public static UIPair<UIRendererKey, UIRendererKey> getRendererKey(@Nonnull final UIComponent component) {
         checkNotNull(component, "The componet must be specified");
-        final Component componentId = component.getClass().getAnnotation(Component.class);
-        checkArgument(componentId != null, "The component: {0} must be annotated by @Component annotation", component);
-        checkState(!Strings.isNullOrEmpty(componentId.namespace()), "The component: {0} must specify its namespace ", component);
 
-        return new UIPair(new UIRendererKey(componentId.namespace(), componentId.name()), new UIRendererKey(componentId.namespace(), null));
+        return getRendererKey(component.getClass());
+    }
+
+    /**
+     * Same as {@link #getRendererKey(com.anosym.nyundo.component.UIComponent)}, for the component class.
+     *
+     * @param componentClass
+     *
+     * @return
+     */
+    public static UIPair<UIRendererKey, UIRendererKey> getRendererKey(@Nonnull final Class<? extends UIComponent> componentClass) {
+        checkNotNull(componentClass, "The componet class must be specified");
+        final Component componentId = componentClass.getAnnotation(Component.class);
+        checkArgument(componentId != null, "The component: %s must be annotated by @Component annotation", componentClass);
+        checkState(!Strings.isNullOrEmpty(componentId.namespace()), "The component: %s must specify its namespace ", componentClass);
+
+        return UIPair.of(new UIRendererKey(componentId.namespace(), getComponentName(componentClass, componentId)),
+                new UIRendererKey(componentId.namespace(), ""));
+    }
+
+    /**
+     * The name of the component, which defaults to the simple name of its class if not specified.
+     *
+     * @param componentClass
+     * @param componentId
+     *
+     * @return
+     */
+    @Nonnull
+    public static String getComponentName(@Nonnull final Class<? extends UIComponent> componentClass,
+            @Nonnull final Component componentId) {
+        return Strings.isNullOrEmpty(componentId.name()) ? componentClass.getSimpleName() : componentId.name();
     }
 }
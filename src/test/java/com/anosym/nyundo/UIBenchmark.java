@@ -0,0 +1,167 @@
+package com.anosym.nyundo;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Throwables;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import javax.annotation.Nonnull;
+
+/**
+ * A minimal measurement harness for the {@code *Benchmark} tests.
+ *
+ * The benchmarks are not part of the default test run (surefire only picks {@code *Test} classes), and run with
+ * {@code mvn test -Dtest=*Benchmark}. Each operation is warmed up, then timed, and the bytes it allocates are read from
+ * the per-thread allocation counter of the jvm, when available. The footprint of large structures is measured as the
+ * heap they retain.
+ *
+ * @author mochieng
+ */
+public final class UIBenchmark {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    /**
+     * Results are accumulated here so that the jit cannot discard the measured operations.
+     */
+    private static volatile int sink;
+
+    private UIBenchmark() {
+    }
+
+    public interface Operation {
+
+        Object run() throws Exception;
+    }
+
+    /**
+     * Warms up and measures the operation.
+     *
+     * @param name the name under which the result is reported
+     * @param iterations the measured iterations, also used as the warm up count
+     * @param operation
+     *
+     * @return
+     */
+    @Nonnull
+    public static Result measure(@Nonnull final String name, final int iterations, @Nonnull final Operation operation) {
+        checkNotNull(operation, "The operation must not be null");
+        checkArgument(iterations > 0, "The iterations must be positive");
+
+        run(iterations, operation);
+        System.gc();
+        final long startBytes = allocatedBytes();
+        final long start = System.nanoTime();
+        run(iterations, operation);
+        final long nanos = System.nanoTime() - start;
+        final long bytes = allocatedBytes() - startBytes;
+        final Result result = new Result(name, (double) nanos / iterations, startBytes < 0 ? -1 : bytes / iterations);
+        System.out.println(result);
+        return result;
+    }
+
+    /**
+     * Measures the heap retained by the object built by the operation, between full collections. Only meaningful for
+     * objects of several megabytes.
+     *
+     * @param name the name under which the result is reported
+     * @param count the number of nodes of the object, by which the result is divided
+     * @param build
+     *
+     * @return the retained bytes per node
+     */
+    public static long retained(@Nonnull final String name, final int count, @Nonnull final Operation build) {
+        checkNotNull(build, "The operation must not be null");
+        checkArgument(count > 0, "The count must be positive");
+
+        try {
+            final long before = usedHeap();
+            final Object built = build.run();
+            final long after = usedHeap();
+            consume(built);
+            final long bytesPerNode = (after - before) / count;
+            System.out.println(String.format(Locale.ROOT, "%-48s %14d B/node retained", name, bytesPerNode));
+            return bytesPerNode;
+        } catch (Exception ex) {
+            throw Throwables.propagate(ex);
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * The bytes allocated so far by the current thread, or -1 if the jvm does not count them.
+     *
+     * @return
+     */
+    public static long allocatedBytes() {
+        if (!(THREADS instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+        if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Consumes a value computed by a benchmark, so that the jit does not discard its computation.
+     *
+     * @param value
+     */
+    public static void consume(final Object value) {
+        sink += System.identityHashCode(value);
+    }
+
+    private static void run(final int iterations, @Nonnull final Operation operation) {
+        try {
+            for (int i = 0; i < iterations; i++) {
+                consume(operation.run());
+            }
+        } catch (Exception ex) {
+            throw Throwables.propagate(ex);
+        }
+    }
+
+    public static final class Result {
+
+        private final String name;
+        private final double nanosPerOperation;
+        private final long bytesPerOperation;
+
+        private Result(final String name, final double nanosPerOperation, final long bytesPerOperation) {
+            this.name = name;
+            this.nanosPerOperation = nanosPerOperation;
+            this.bytesPerOperation = bytesPerOperation;
+        }
+
+        public double getNanosPerOperation() {
+            return nanosPerOperation;
+        }
+
+        /**
+         * The bytes allocated per operation, -1 if unknown.
+         *
+         * @return
+         */
+        public long getBytesPerOperation() {
+            return bytesPerOperation;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-48s %14.1f ns/op %12d B/op", name, nanosPerOperation,
+                    bytesPerOperation);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.anosym.nyundo;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import com.anosym.nyundo.element.UIAttribute;
+import com.google.common.base.Predicate;
+import com.google.common.collect.Collections2;
+import com.google.common.collect.Lists;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Measures the allocation per node of {@link UIStringable} subclasses, against the per-instance field metadata the
+ * stringables computed in their constructor.
+ *
+ * @author mochieng
+ */
+public class UIStringableBenchmark {
+
+    private static final int ITERATIONS = 500000;
+
+    @Test
+    public void testPerNodeAllocation() {
+        final UIBenchmark.Result eager = UIBenchmark.measure("node: per-instance field metadata", ITERATIONS,
+                new UIBenchmark.Operation() {
+
+                    @Override
+                    public Object run() {
+                        return new EagerAttribute("name", "value");
+                    }
+                });
+        final UIBenchmark.Result lazy = UIBenchmark.measure("node: per-class field metadata", ITERATIONS,
+                new UIBenchmark.Operation() {
+
+                    @Override
+                    public Object run() {
+                        return new UIAttribute("name", "value");
+                    }
+                });
+        if (lazy.getBytesPerOperation() >= 0) {
+            assertThat(lazy.getBytesPerOperation(), is(lessThan(eager.getBytesPerOperation())));
+        }
+    }
+
+    /**
+     * An attribute whose field metadata is computed by its constructor, as every stringable did.
+     */
+    private static final class EagerAttribute {
+
+        private final transient Iterable<Field> fields;
+        private final String name;
+        private final String value;
+
+        private EagerAttribute(final String name, final String value) {
+            this.name = name;
+            this.value = value;
+            this.fields = fields(getClass());
+        }
+
+        private static Iterable<Field> fields(final Class<?> clazz) {
+            final List<Field> fields = Lists.newArrayList();
+            for (Class<?> type = clazz; type != Object.class; type = type.getSuperclass()) {
+                fields.addAll(Arrays.asList(type.getDeclaredFields()));
+            }
+            Collections.sort(fields, new Comparator<Field>() {
+
+                @Override
+                public int compare(Field o1, Field o2) {
+                    return o1.getName().compareTo(o2.getName());
+                }
+            });
+            return Collections2.filter(fields, new Predicate<Field>() {
+
+                @Override
+                public boolean apply(Field input) {
+                    return !Modifier.isStatic(input.getModifiers());
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.anosym.nyundo.component;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import com.anosym.nyundo.UIBenchmark;
+import com.anosym.nyundo.annotation.Component;
+import com.anosym.nyundo.element.UIElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Comparator;
+import org.junit.Test;
+
+/**
+ * Compares {@link UIAttributeBinder} with binding the attributes through plain reflection.
+ *
+ * @author mochieng
+ */
+public class UIAttributeBinderBenchmark {
+
+    private static final int ITERATIONS = 200000;
+
+    @Component(name = "textfield", namespace = "http://nyundo.anosym.com/test")
+    public static class TextField extends UIComponent {
+
+        private String name = "email";
+        private String placeholder = "you@example.com";
+        private String pattern = "[^@]+@[^@]+";
+        private String title = "Your email address";
+        private int size = 20;
+        private int maxLength = 64;
+        private boolean required = true;
+        private String value;
+    }
+
+    @Test
+    public void testBindThroughMethodHandles() throws Exception {
+        final TextField component = new TextField();
+        assertThat(bindWithHandles(component).renderXml().toString(),
+                is(bindWithReflection(component).renderXml().toString()));
+
+        final UIBenchmark.Result reflection = UIBenchmark.measure("bind: reflection", ITERATIONS,
+                new UIBenchmark.Operation() {
+
+                    @Override
+                    public Object run() throws Exception {
+                        return bindWithReflection(component);
+                    }
+                });
+        final UIBenchmark.Result handles = UIBenchmark.measure("bind: UIAttributeBinder", ITERATIONS,
+                new UIBenchmark.Operation() {
+
+                    @Override
+                    public Object run() {
+                        return bindWithHandles(component);
+                    }
+                });
+        if (handles.getBytesPerOperation() >= 0) {
+            assertThat(handles.getBytesPerOperation(), is(lessThan(reflection.getBytesPerOperation())));
+        }
+    }
+
+    private static UIElement bindWithHandles(final UIComponent component) {
+        final UIElement element = new UIElement("input", null);
+        UIAttributeBinder.bind(component, element);
+        return element;
+    }
+
+    /**
+     * The binding as done without a per class accessor table: the fields are looked up, made accessible and read on
+     * every call.
+     */
+    private static UIElement bindWithReflection(final UIComponent component) throws IllegalAccessException {
+        final UIElement element = new UIElement("input", null);
+        final Field[] fields = component.getClass().getDeclaredFields();
+        Arrays.sort(fields, new Comparator<Field>() {
+
+            @Override
+            public int compare(Field o1, Field o2) {
+                return o1.getName().compareTo(o2.getName());
+            }
+        });
+        for (Field field : fields) {
+            if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+                continue;
+            }
+            field.setAccessible(true);
+            final Object value = field.get(component);
+            if (value != null && !String.valueOf(value).isEmpty()) {
+                element.addAttribute(field.getName(), String.valueOf(value));
+            }
+        }
+        return element;
+    }
+}
@@ -0,0 +1,63 @@
+package com.anosym.nyundo.component;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertThat;
+
+import com.anosym.nyundo.annotation.Attribute;
+import com.anosym.nyundo.annotation.Component;
+import com.anosym.nyundo.annotation.Transient;
+import com.anosym.nyundo.element.UIElement;
+import org.junit.Test;
+
+/**
+ *
+ * @author mochieng
+ */
+public class UIAttributeBinderTest {
+
+    @Component(name = "input", namespace = "http://nyundo.anosym.com/test")
+    public static class InputComponent extends UIComponent {
+
+        private String name = "email";
+        private int size = 20;
+        private String placeholder;
+        @Transient
+        private String secret = "hidden";
+        private final String type = "text";
+    }
+
+    @Component(name = "button", namespace = "http://nyundo.anosym.com/test")
+    public static class ButtonComponent extends UIComponent {
+
+        @Attribute(name = "formaction")
+        private String action = "/next";
+        private String label = "Next";
+
+        @Attribute
+        public boolean isDisabled() {
+            return true;
+        }
+    }
+
+    @Test
+    public void testUnannotatedFieldsAreAttributes() {
+        assertThat(UIAttributeBinder.forClass(InputComponent.class).getAttributeNames(),
+                contains("name", "placeholder", "size"));
+    }
+
+    @Test
+    public void testOnlyAnnotatedPropertiesAreAttributes() {
+        assertThat(UIAttributeBinder.forClass(ButtonComponent.class).getAttributeNames(),
+                contains("disabled", "formaction"));
+    }
+
+    @Test
+    public void testBindAttributes() {
+        final UIElement element = new UIElement("input", null);
+        UIAttributeBinder.bind(new InputComponent(), element);
+
+        assertThat(element.renderXml().toString(), is("<input  name=\"email\"  size=\"20\"/>\n"));
+    }
+
+}
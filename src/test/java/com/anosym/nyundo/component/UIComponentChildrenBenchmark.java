@@ -0,0 +1,75 @@
+package com.anosym.nyundo.component;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import com.anosym.nyundo.UIBenchmark;
+import com.anosym.nyundo.util.UIComponentId;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Measures the footprint of the children storage of a page of 200k leaves and 50k containers of 4 children, against a
+ * hash map per component.
+ *
+ * @author mochieng
+ */
+public class UIComponentChildrenBenchmark {
+
+    private static final int CONTAINERS = 50000;
+
+    private static final int CHILDREN = 4;
+
+    private static final int LEAVES = CONTAINERS * CHILDREN;
+
+    @Test
+    public void testChildrenFootprint() {
+        final UIComponent[] children = new UIComponent[CHILDREN];
+        for (int i = 0; i < CHILDREN; i++) {
+            children[i] = new UIComponentTest.Panel("child" + i);
+        }
+
+        final long hashed = UIBenchmark.retained("children: hash map per component", CONTAINERS + LEAVES,
+                new UIBenchmark.Operation() {
+
+                    @Override
+                    public Object run() {
+                        final Object[] storage = new Object[CONTAINERS + LEAVES];
+                        for (int i = 0; i < CONTAINERS; i++) {
+                            final Map<UIComponentId, UIComponent> container = new HashMap<>();
+                            for (UIComponent child : children) {
+                                container.put(child.getComponentId(), child);
+                            }
+                            storage[i] = container;
+                        }
+                        for (int i = CONTAINERS; i < storage.length; i++) {
+                            storage[i] = new HashMap<UIComponentId, UIComponent>();
+                        }
+                        return storage;
+                    }
+                });
+        final long adaptive = UIBenchmark.retained("children: size-adaptive", CONTAINERS + LEAVES,
+                new UIBenchmark.Operation() {
+
+                    @Override
+                    public Object run() {
+                        final Object[] storage = new Object[CONTAINERS + LEAVES];
+                        for (int i = 0; i < CONTAINERS; i++) {
+                            UIComponentChildren container = UIComponentChildren.empty();
+                            for (UIComponent child : children) {
+                                container = container.with(child);
+                            }
+                            storage[i] = container;
+                        }
+                        for (int i = CONTAINERS; i < storage.length; i++) {
+                            storage[i] = UIComponentChildren.empty();
+                        }
+                        return storage;
+                    }
+                });
+
+        assertThat(adaptive, is(lessThan(hashed)));
+    }
+}
@@ -0,0 +1,114 @@
+package com.anosym.nyundo.component;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import java.util.List;
+import java.util.Set;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import org.junit.Test;
+
+/**
+ * Measures the throughput of id generators contended by 32 threads, and the ids they generate twice.
+ *
+ * @author mochieng
+ */
+public class UIComponentIdGeneratorBenchmark {
+
+    private static final int THREADS = 32;
+
+    private static final int IDS_PER_THREAD = 200000;
+
+    @Test
+    public void testContendedThroughput() throws Exception {
+        measure("ids: random per id", new UIComponentIdGenerator() {
+
+            @Override
+            public String nextId() {
+                //The generator of UIComponent before the counter generator.
+                final Random random = new Random(System.currentTimeMillis());
+                return "id" + random.nextInt(Integer.MAX_VALUE);
+            }
+        });
+        final AtomicLong counter = new AtomicLong();
+        measure("ids: shared counter", new UIComponentIdGenerator() {
+
+            @Override
+            public String nextId() {
+                return "!" + Long.toString(counter.getAndIncrement(), Character.MAX_RADIX);
+            }
+        });
+        final long duplicates = measure("ids: per-thread counter blocks", new UICounterComponentIdGenerator());
+
+        assertThat(duplicates, is(0L));
+    }
+
+    /**
+     * Reports the throughput of the generator, and returns the number of duplicate ids it generated.
+     */
+    private static long measure(@Nonnull final String name, @Nonnull final UIComponentIdGenerator idGenerator)
+            throws Exception {
+        //Warm up.
+        generate(idGenerator);
+        final List<String[]> ids = generate(idGenerator);
+
+        final long start = System.nanoTime();
+        generate(idGenerator);
+        final long nanos = System.nanoTime() - start;
+
+        final long total = (long) THREADS * IDS_PER_THREAD;
+        long distinct = 0;
+        final Set<String> seen = Sets.newHashSet();
+        for (String[] threadIds : ids) {
+            for (String id : threadIds) {
+                if (seen.add(id)) {
+                    distinct++;
+                }
+            }
+        }
+        System.out.println(String.format(Locale.ROOT, "%-48s %14.1f Mids/s %12d duplicates", name,
+                total * 1000.0 / nanos, total - distinct));
+        return total - distinct;
+    }
+
+    @Nonnull
+    private static List<String[]> generate(@Nonnull final UIComponentIdGenerator idGenerator) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<String[]>> results = Lists.newArrayList();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(new Callable<String[]>() {
+
+                    @Override
+                    public String[] call() throws InterruptedException {
+                        final String[] ids = new String[IDS_PER_THREAD];
+                        start.await();
+                        for (int j = 0; j < IDS_PER_THREAD; j++) {
+                            ids[j] = idGenerator.nextId();
+                        }
+                        return ids;
+                    }
+                }));
+            }
+            start.countDown();
+            final List<String[]> ids = Lists.newArrayList();
+            for (Future<String[]> result : results) {
+                ids.add(result.get());
+            }
+            return ids;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
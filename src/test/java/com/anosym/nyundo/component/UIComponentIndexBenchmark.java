@@ -0,0 +1,64 @@
+package com.anosym.nyundo.component;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import com.anosym.nyundo.UIBenchmark;
+import org.junit.Test;
+
+/**
+ * Measures adding, looking up and removing a field of an indexed page of 20k components, against building and
+ * indexing the whole page.
+ *
+ * @author mochieng
+ */
+public class UIComponentIndexBenchmark {
+
+    private static final int ITERATIONS = 2000;
+
+    private static final int FORMS = 2000;
+
+    private static final int FIELDS = 10;
+
+    @Test
+    public void testInterleavedMutationAndLookup() throws Exception {
+        final UIBenchmark.Result indexing = UIBenchmark.measure("index: build and index the page", ITERATIONS / 100,
+                new UIBenchmark.Operation() {
+
+                    @Override
+                    public Object run() {
+                        return page().findComponent(":page:form0:field0");
+                    }
+                });
+
+        final UIComponent page = page();
+        final UIComponent form = page.findComponent(":page:form0");
+        final UIBenchmark.Result interleaved = UIBenchmark.measure("index: add, look up and remove a field", ITERATIONS,
+                new UIBenchmark.Operation() {
+
+                    @Override
+                    public Object run() {
+                        final UIComponent field = new UIComponentTest.Panel("extra");
+                        form.addChild(field);
+                        final UIComponent found = page.findComponent(":page:form0:extra");
+                        form.removeChild(field);
+                        return found;
+                    }
+                });
+
+        assertThat(interleaved.getNanosPerOperation() * 100, is(lessThan(indexing.getNanosPerOperation())));
+    }
+
+    private static UIComponent page() {
+        final UIComponent page = new UIComponentTest.Panel("page");
+        for (int i = 0; i < FORMS; i++) {
+            final UIComponent form = new UIComponentTest.Panel("form" + i);
+            for (int j = 0; j < FIELDS; j++) {
+                form.addChild(new UIComponentTest.Panel("field" + j));
+            }
+            page.addChild(form);
+        }
+        return page;
+    }
+}
@@ -0,0 +1,206 @@
+package com.anosym.nyundo.component;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.anosym.nyundo.annotation.Component;
+import com.google.common.collect.Lists;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ *
+ * @author mochieng
+ */
+public class UIComponentTest {
+
+    @Component(name = "panel", namespace = "http://nyundo.anosym.com/test")
+    public static class Panel extends UIComponent {
+
+        public Panel(final String id) {
+            super(id);
+        }
+    }
+
+    @Test
+    public void testFindAbsoluteComponent() {
+        final Panel page = new Panel("page");
+        final Panel form = new Panel("form");
+        final Panel email = new Panel("email");
+        page.addChild(form);
+        form.addChild(email);
+
+        assertThat(email.getCanonicalId(), is(":page:form:email"));
+        assertThat(email.findComponent(":page:form:email"), is(sameInstance((UIComponent) email)));
+        assertThat(page.findComponent(": page : form"), is(sameInstance((UIComponent) form)));
+        assertThat(page.findComponent(":page:email"), is(nullValue()));
+    }
+
+    @Test
+    public void testFindRelativeComponent() {
+        final Panel page = new Panel("page");
+        final Panel form = new Panel("form");
+        final Panel email = new Panel("email");
+        page.addChild(form);
+        form.addChild(email);
+        page.addChild(new Panel("other"));
+
+        assertThat(form.findComponent("form:email"), is(sameInstance((UIComponent) email)));
+        assertThat(form.findComponent("other"), is(nullValue()));
+        assertThat(form.findComponent("formx:email"), is(nullValue()));
+    }
+
+    @Test
+    public void testIndexSubtreeBuiltBottomUp() {
+        final Panel form = new Panel("form");
+        final Panel email = new Panel("email");
+        form.addChild(email);
+        final Panel page = new Panel("page");
+        page.addChild(form);
+
+        assertThat(page.findComponent(":page:form:email"), is(sameInstance((UIComponent) email)));
+        assertThat(page.findComponent(":form:email"), is(nullValue()));
+    }
+
+    @Test
+    public void testReplacedChildIsRemovedFromIndex() {
+        final Panel page = new Panel("page");
+        final Panel form = new Panel("form");
+        form.addChild(new Panel("email"));
+        page.addChild(form);
+        final Panel replacement = new Panel("form");
+        page.addChild(replacement);
+
+        assertThat(page.findComponent(":page:form"), is(sameInstance((UIComponent) replacement)));
+        assertThat(page.findComponent(":page:form:email"), is(nullValue()));
+        assertThat(form.getParent(), is(nullValue()));
+        assertThat(form.findComponent(":form:email").getCanonicalId(), is(":form:email"));
+    }
+
+    @Test
+    public void testIndexFollowsTreeChanges() {
+        final Panel page = new Panel("page");
+        final Panel form = new Panel("form");
+        page.addChild(form);
+        assertThat(page.findComponent(":page:form"), is(sameInstance((UIComponent) form)));
+
+        final Panel email = new Panel("email");
+        form.addChild(email);
+        assertThat(page.findComponent(":page:form:email"), is(sameInstance((UIComponent) email)));
+        assertThat(email.getCanonicalId(), is(":page:form:email"));
+
+        page.removeChild(form);
+        assertThat(page.findComponent(":page:form:email"), is(nullValue()));
+        assertThat(email.getCanonicalId(), is(":form:email"));
+        assertThat(form.findComponent(":form:email"), is(sameInstance((UIComponent) email)));
+    }
+
+    @Test
+    public void testRelativeLookupBelowTheRoot() {
+        final Panel page = new Panel("page");
+        final Panel form = new Panel("form");
+        final Panel email = new Panel("email");
+        page.addChild(form);
+        form.addChild(email);
+        assertThat(email.findComponent("email"), is(sameInstance((UIComponent) email)));
+
+        final Panel other = new Panel("other");
+        other.addChild(form);
+        assertThat(email.findComponent("email"), is(sameInstance((UIComponent) email)));
+        assertThat(email.getCanonicalId(), is(":other:form:email"));
+    }
+
+    @Test
+    public void testIndexUpdatedWithSubtrees() {
+        final Panel page = new Panel("page");
+        page.addChild(new Panel("header"));
+        assertThat(page.findComponent(":page:header"), is(notNullValue()));
+
+        final Panel form = new Panel("form");
+        final Panel email = new Panel("email");
+        form.addChild(email);
+        assertThat(form.findComponent(":form:email"), is(sameInstance((UIComponent) email)));
+        page.addChild(form);
+        assertThat(page.findComponent(":page:form:email"), is(sameInstance((UIComponent) email)));
+        assertThat(form.findComponent(":form:email"), is(nullValue()));
+
+        final Panel replacement = new Panel("form");
+        replacement.addChild(new Panel("phone"));
+        page.addChild(replacement);
+        assertThat(page.findComponent(":page:form:email"), is(nullValue()));
+        assertThat(page.findComponent(":page:form:phone"), is(notNullValue()));
+        assertThat(form.findComponent(":form:email"), is(sameInstance((UIComponent) email)));
+
+        page.removeChild(replacement);
+        assertThat(page.findComponent(":page:form"), is(nullValue()));
+        assertThat(page.findComponent(":page:form:phone"), is(nullValue()));
+        assertThat(replacement.findComponent(":form:phone"), is(notNullValue()));
+    }
+
+    @Test
+    public void testChildrenKeepInsertionOrder() {
+        final Panel page = new Panel("page");
+        final List<String> expected = Lists.newArrayList();
+        for (int i = 20; i > 0; i--) {
+            page.addChild(new Panel("child" + i));
+            expected.add("child" + i);
+
+            final List<String> children = Lists.newArrayList();
+            for (UIComponent child : page) {
+                children.add(child.getComponentId().getSimpleId());
+            }
+            assertThat(children, is(expected));
+            assertThat(page.getChildren().size(), is(expected.size()));
+        }
+    }
+
+    @Test
+    public void testReplacedChildKeepsItsPosition() {
+        final Panel page = new Panel("page");
+        for (int i = 0; i < 3; i++) {
+            page.addChild(new Panel("child" + i));
+        }
+        final Panel replacement = new Panel("child1");
+        page.addChild(replacement);
+
+        assertThat(Lists.newArrayList(page.getChildren().values()).get(1), is(sameInstance((UIComponent) replacement)));
+        assertThat(page.getChildren().get(replacement.getComponentId()), is(sameInstance((UIComponent) replacement)));
+        assertThat(page.getChildren().size(), is(3));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testChildrenAreUnmodifiable() {
+        final Panel page = new Panel("page");
+        final Panel child = new Panel("child");
+        page.getChildren().put(child.getComponentId(), child);
+    }
+
+    @Test
+    public void testChangesFlagTheirAncestors() {
+        final Panel page = new Panel("page");
+        final Panel form = new Panel("form");
+        final Panel email = new Panel("email");
+        final Panel menu = new Panel("menu");
+        page.addChild(form);
+        page.addChild(menu);
+        form.addChild(email);
+        page.clearChanges();
+        assertThat(email.isChanged() || form.hasChangedDescendants() || page.hasChangedDescendants(), is(false));
+
+        email.markChanged();
+        assertThat(email.isChanged(), is(true));
+        assertThat(form.isChanged(), is(false));
+        assertThat(form.hasChangedDescendants(), is(true));
+        assertThat(page.hasChangedDescendants(), is(true));
+        assertThat(menu.isChanged() || menu.hasChangedDescendants(), is(false));
+
+        page.clearChanges();
+        assertThat(email.isChanged() || form.hasChangedDescendants() || page.hasChangedDescendants(), is(false));
+        form.removeChild(email);
+        assertThat(form.isChanged(), is(true));
+        assertThat(page.hasChangedDescendants(), is(true));
+    }
+}
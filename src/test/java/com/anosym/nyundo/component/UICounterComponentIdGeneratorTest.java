@@ -0,0 +1,63 @@
+package com.anosym.nyundo.component;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+/**
+ *
+ * @author mochieng
+ */
+public class UICounterComponentIdGeneratorTest {
+
+    private static final int THREADS = 32;
+
+    private static final int IDS_PER_THREAD = 10000;
+
+    @Test
+    public void testIdsAreUniqueAcrossThreads() throws Exception {
+        final UIComponentIdGenerator idGenerator = new UICounterComponentIdGenerator(128);
+        final Set<String> ids = Sets.newConcurrentHashSet();
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<Void>> results = Lists.newArrayList();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(new Callable<Void>() {
+
+                    @Override
+                    public Void call() {
+                        for (int j = 0; j < IDS_PER_THREAD; j++) {
+                            ids.add(idGenerator.nextId());
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(ids.size(), is(THREADS * IDS_PER_THREAD));
+    }
+
+    @Test
+    public void testIdsAreShort() {
+        final UIComponentIdGenerator idGenerator = new UICounterComponentIdGenerator();
+
+        assertThat(idGenerator.nextId(), is("!0"));
+        assertThat(idGenerator.nextId(), is("!1"));
+    }
+
+}
@@ -0,0 +1,182 @@
+package com.anosym.nyundo.element;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import com.anosym.nyundo.UIBenchmark;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import org.junit.Test;
+
+/**
+ * Measures the build and the footprint of {@link UIElement} trees of 100k nodes.
+ *
+ * @author mochieng
+ */
+public class UIElementBenchmark {
+
+    private static final int ROWS = 25000;
+
+    /**
+     * Every row is a row element, a cell element, a text and a break.
+     */
+    private static final int NODES = ROWS * 4;
+
+    /**
+     * The bottom-up trees are built as sections, every section wrapping the previous ones and its own leaves.
+     */
+    private static final int SECTIONS = 100;
+
+    private static final int ITERATIONS = 20;
+
+    @Test
+    public void testBuild() {
+        UIBenchmark.measure("build: top-down", ITERATIONS, new UIBenchmark.Operation() {
+
+            @Override
+            public Object run() {
+                final UIElement page = new UIElement("page", null);
+                UIElement section = page;
+                for (int i = 0; i < SECTIONS; i++) {
+                    section = new UIElement("section", section);
+                    for (int j = 1; j < NODES / SECTIONS; j++) {
+                        new UIElement("p", section);
+                    }
+                }
+                return page;
+            }
+        });
+        UIBenchmark.measure("build: bottom-up", ITERATIONS, new UIBenchmark.Operation() {
+
+            @Override
+            public Object run() {
+                UIElement previous = null;
+                for (int i = 0; i < SECTIONS; i++) {
+                    final UIElement section = new UIElement("section", null);
+                    if (previous != null) {
+                        section.appendChild(previous);
+                    }
+                    for (int j = 1; j < NODES / SECTIONS; j++) {
+                        section.appendChild(new UIElement("p", null));
+                    }
+                    previous = section;
+                }
+                return previous;
+            }
+        });
+        UIBenchmark.measure("build: bottom-up, renumbering subtrees", ITERATIONS, new UIBenchmark.Operation() {
+
+            @Override
+            public Object run() {
+                RenumberedElement previous = null;
+                for (int i = 0; i < SECTIONS; i++) {
+                    final RenumberedElement section = new RenumberedElement();
+                    if (previous != null) {
+                        section.addChild(previous);
+                    }
+                    for (int j = 1; j < NODES / SECTIONS; j++) {
+                        section.addChild(new RenumberedElement());
+                    }
+                    previous = section;
+                }
+                return previous;
+            }
+        });
+    }
+
+    @Test
+    public void testFootprint() {
+        final UIAttribute rowClass = new UIAttribute("class", "row");
+        final UIAttribute cellClass = new UIAttribute("class", "cell");
+        final UIAttribute cellTitle = new UIAttribute("title", "Cell");
+
+        final long skipLists = UIBenchmark.retained("page: skip list nodes", NODES, new UIBenchmark.Operation() {
+
+            @Override
+            public Object run() {
+                final SkipListElement page = new SkipListElement("page", null);
+                for (int i = 0; i < ROWS; i++) {
+                    final SkipListElement row = new SkipListElement("div", page);
+                    row.attributes.add(rowClass);
+                    final SkipListElement cell = new SkipListElement("span", row);
+                    cell.attributes.add(cellClass);
+                    cell.attributes.add(cellTitle);
+                    new SkipListElement("text-element", cell);
+                    new SkipListElement("br", row);
+                }
+                return page;
+            }
+        });
+        final long compact = UIBenchmark.retained("page: compact nodes", NODES, new UIBenchmark.Operation() {
+
+            @Override
+            public Object run() {
+                final UIElement page = new UIElement("page", null);
+                for (int i = 0; i < ROWS; i++) {
+                    final UIElement row = new UIElement("div", page);
+                    row.addAttribute(rowClass);
+                    final UIElement cell = new UIElement("span", row);
+                    cell.addAttribute(cellClass);
+                    cell.addAttribute(cellTitle);
+                    new UIText("Cell", cell);
+                    new UIElement("br", row);
+                }
+                return page;
+            }
+        });
+
+        assertThat(compact, is(lessThan(skipLists)));
+    }
+
+    /**
+     * The node layout of {@link UIElement} before the compact layout, text nodes included.
+     */
+    private static final class SkipListElement {
+
+        private final String name;
+        private final SkipListElement parentElement;
+        private final Set<UINamespace> declaredNamespaces = new ConcurrentSkipListSet<>();
+        private final Set<UIAttribute> attributes = new ConcurrentSkipListSet<>();
+        private final List<SkipListElement> children = new ArrayList<>();
+        private int hashId;
+
+        private SkipListElement(final String name, final SkipListElement parentElement) {
+            this.name = name;
+            this.parentElement = parentElement;
+            if (parentElement != null) {
+                hashId = parentElement.children.size() * 10;
+                parentElement.children.add(this);
+            }
+        }
+    }
+
+    /**
+     * The positional ids of {@link UIElement} before the constant time append: attaching a child renumbers its whole
+     * subtree.
+     */
+    private static final class RenumberedElement {
+
+        private final List<RenumberedElement> children = new ArrayList<>();
+        private int hashId;
+
+        private synchronized void addChild(final RenumberedElement child) {
+            child.hashId = nextChildHash();
+            child.renumberChildren();
+            children.add(child);
+        }
+
+        private void renumberChildren() {
+            for (RenumberedElement child : children) {
+                child.hashId = nextChildHash();
+                child.renumberChildren();
+            }
+        }
+
+        private int nextChildHash() {
+            return hashId + 10 * children.size();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.anosym.nyundo.element;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+/**
+ *
+ * @author mochieng
+ */
+public class UIElementTest {
+
+    @Test
+    public void testRenderXml() {
+        final UIElement html = new UIElement("html", null);
+        final UIElement body = new UIElement("body", html);
+        body.addAttribute("class", "main");
+        new UIText("Hello", new UIElement("p", body));
+        new UIElement("br", body);
+        final String expected = "<html>\n"
+                + "    <body  class=\"main\">\n"
+                + "        <p>\n"
+                + "Hello\n"
+                + "        </p>\n"
+                + "        <br/>\n"
+                + "\n"
+                + "    </body>\n"
+                + "\n"
+                + "</html>\n";
+
+        assertThat(html.renderXml().toString(), is(expected));
+    }
+
+    @Test
+    public void testRenderToStreamsSameXml() throws Exception {
+        final UIElement html = new UIElement("html", null);
+        final UIElement body = new UIElement("body", html);
+        body.addAttribute("id", "content");
+        for (int i = 0; i < 10; i++) {
+            new UIText("row" + i, new UIElement("div", body));
+        }
+        final StringWriter writer = new StringWriter();
+        html.renderTo(writer);
+
+        assertThat(writer.toString(), is(html.renderXml().toString()));
+    }
+
+    @Test
+    public void testRenderToUtf8Output() throws Exception {
+        final UIElement html = new UIElement("html", null);
+        final UIElement body = new UIElement("body", html);
+        body.addAttribute("title", "caf\u00e9 \u20ac \ud83d\ude00");
+        for (int i = 0; i < 100; i++) {
+            new UIText("\u00fcber row " + i, new UIElement("div", body));
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (UIUtf8Output out = new UIUtf8Output(bytes, new UIByteBufferPool(64, 1, true))) {
+            html.renderTo(out);
+        }
+
+        assertThat(new String(bytes.toByteArray(), StandardCharsets.UTF_8), is(html.renderXml().toString()));
+    }
+
+    @Test
+    public void testRenderCompact() {
+        final UIElement html = new UIElement("html", null);
+        final UIElement body = new UIElement("body", html);
+        body.addAttribute("class", "main");
+        body.addAttribute("id", "content");
+        new UIText("Hello", new UIElement("p", body));
+        new UIElement("br", body);
+        final String expected = "<html><body class=\"main\" id=\"content\"><p>Hello</p><br/></body></html>";
+
+        assertThat(html.renderXml(UIRenderMode.COMPACT).toString(), is(expected));
+    }
+
+    @Test
+    public void testAttributesAreSortedByName() {
+        final UIElement input = new UIElement("input", null);
+        input.addAttribute("type", "text");
+        input.addAttribute("name", "email");
+        input.addAttribute("Id", "email");
+
+        assertThat(input.renderXml(UIRenderMode.COMPACT).toString(),
+                is("<input Id=\"email\" name=\"email\" type=\"text\"/>"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDuplicateAttribute() {
+        final UIElement input = new UIElement("input", null);
+        input.addAttribute("name", "email");
+        input.addAttribute("NAME", "email");
+    }
+
+    @Test
+    public void testTargetNamespace() {
+        final UIElement html = new UIElement("html", null);
+        html.setTargetNamespace(new UINamespace("http://www.w3.org/1999/xhtml", "h"));
+        new UIElement("body", html);
+
+        assertThat(html.renderXml(UIRenderMode.COMPACT).toString(),
+                is("<h:html targetNamespace=\"http://www.w3.org/1999/xhtml\" xmlns:h=\"http://www.w3.org/1999/xhtml\">"
+                        + "<h:body/></h:html>"));
+    }
+
+    @Test
+    public void testElementsOfDifferentParentsAreNotEqual() {
+        final UIElement html = new UIElement("html", null);
+        final UIElement first = new UIElement("div", html);
+        final UIElement second = new UIElement("div", html);
+        final UIElement nested = new UIElement("div", first);
+
+        assertThat(first.equals(second), is(false));
+        assertThat(first.equals(nested), is(false));
+        assertThat(first.compareTo(second) < 0, is(true));
+        assertThat(html.getChildrenCount(), is(2));
+    }
+
+    @Test
+    public void testAppendPrebuiltSubtree() {
+        final UIElement list = new UIElement("ul", null);
+        new UIText("one", new UIElement("li", list));
+        final UIElement body = new UIElement("body", null);
+        new UIElement("h1", body);
+        body.appendChild(list);
+
+        assertThat(list.getParentElement(), is(body));
+        assertThat(list.getPosition(), is(1));
+        assertThat(body.renderXml(UIRenderMode.COMPACT).toString(), is("<body><h1/><ul><li>one</li></ul></body>"));
+    }
+
+    @Test
+    public void testSerializedEventsSameAsRenderXml() throws Exception {
+        final UIElement html = new UIElement("html", null);
+        html.declareNamespace(new UINamespace("http://nyundo.anosym.com/test", "t"));
+        html.setTargetNamespace(new UINamespace("http://www.w3.org/1999/xhtml", "h"));
+        final UIElement body = new UIElement("body", html);
+        body.addAttribute("id", "content");
+        body.addAttribute("class", "main");
+        new UIText("Tom & Jerry", new UIElement("p", body));
+        new UIElement("br", body);
+
+        for (UIRenderMode mode : UIRenderMode.values()) {
+            final StringBuilder events = new StringBuilder();
+            html.emitTo(new UIMarkupSerializer(events, mode));
+            assertThat(events.toString(), is(html.renderXml(mode).toString()));
+        }
+    }
+
+    @Test
+    public void testNamespaceUrisAreQuotedAndEscaped() throws Exception {
+        final UIElement html = new UIElement("html", null);
+        html.declareNamespace(new UINamespace("urn:a&b", "t"));
+        html.setTargetNamespace(new UINamespace("urn:\"x\"", "h"));
+        final String expected = "<h:html targetNamespace=\"urn:&quot;x&quot;\" xmlns:t=\"urn:a&amp;b\""
+                + " xmlns:h=\"urn:&quot;x&quot;\"/>";
+
+        assertThat(html.renderXml(UIRenderMode.COMPACT).toString(), is(expected));
+        final StringBuilder events = new StringBuilder();
+        html.emitTo(new UIMarkupSerializer(events, UIRenderMode.COMPACT));
+        assertThat(events.toString(), is(expected));
+    }
+}
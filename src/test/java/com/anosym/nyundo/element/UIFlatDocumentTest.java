@@ -0,0 +1,78 @@
+package com.anosym.nyundo.element;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author mochieng
+ */
+public class UIFlatDocumentTest {
+
+    @Test
+    public void testRenderSameAsElementTree() throws Exception {
+        final UIElement html = new UIElement("html", null);
+        final UIElement body = new UIElement("body", html);
+        body.addAttribute("class", "main");
+        body.addAttribute("id", "content");
+        final UIFlatDocument document = new UIFlatDocument(1, true);
+        final int flatHtml = document.createElement("html", UIFlatDocument.NO_NODE);
+        final int flatBody = document.createElement("body", flatHtml);
+        document.addAttribute(flatBody, "class", "main");
+        document.addAttribute(flatBody, "id", "content");
+        for (int i = 0; i < 100; i++) {
+            final UIElement row = new UIElement("div", body);
+            new UIText("row" + i, new UIElement("span", row));
+            new UIElement("br", row);
+            final int flatRow = document.createElement("div", flatBody);
+            document.createText("row" + i, document.createElement("span", flatRow));
+            document.createElement("br", flatRow);
+        }
+
+        assertThat(document.getNodeCount(), is(402));
+        assertThat(document.renderXml(0).toString(), is(html.renderXml().toString()));
+        final StringBuilder compact = new StringBuilder();
+        document.renderTo(compact, UIRenderMode.COMPACT);
+        assertThat(compact.toString(), is(html.renderXml(UIRenderMode.COMPACT).toString()));
+    }
+
+    @Test
+    public void testRenderSiblingRoots() {
+        final UIFlatDocument document = new UIFlatDocument();
+        document.createElement("meta", UIFlatDocument.NO_NODE);
+        document.createText("text", document.createElement("title", UIFlatDocument.NO_NODE));
+
+        assertThat(document.renderXml(0).toString(), is("<meta/>\n<title>\ntext\n</title>\n"));
+    }
+
+    @Test
+    public void testBuildFromMarkupEvents() throws Exception {
+        final UIElement html = new UIElement("html", null);
+        html.setTargetNamespace(new UINamespace("http://www.w3.org/1999/xhtml", "h"));
+        final UIElement body = new UIElement("body", html);
+        body.addAttribute("title", "Tom & \"Jerry\"");
+        new UIText("1 < 2", body);
+        new UIFragment("<hr/>", body);
+        final UIFlatDocument document = new UIFlatDocument(1, false);
+        html.emitTo(document.newBuilder());
+
+        assertThat(document.getNodeCount(), is(4));
+        assertThat(document.getName(document.getFirstChild(0)), is("h:body"));
+        assertThat(document.getName(document.getFirstChild(1)), is("1 < 2"));
+        final StringBuilder compact = new StringBuilder();
+        document.renderTo(compact, UIRenderMode.COMPACT);
+        assertThat(compact.toString(), is("<h:html targetNamespace=\"http://www.w3.org/1999/xhtml\""
+                + " xmlns:h=\"http://www.w3.org/1999/xhtml\"><h:body title=\"Tom &amp; &quot;Jerry&quot;\">"
+                + "1 &lt; 2<hr/></h:body></h:html>"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTextCannotHaveChildren() {
+        final UIFlatDocument document = new UIFlatDocument();
+        final int text = document.createText("text", document.createElement("p", UIFlatDocument.NO_NODE));
+        document.createElement("span", text);
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.anosym.nyundo.element;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+/**
+ *
+ * @author mochieng
+ */
+public class UINameTest {
+
+    @Test
+    public void testNamesAreInterned() {
+        assertThat(UIName.of("div"), is(sameInstance(UIName.of("div"))));
+        assertThat(UIName.of("h", "div"), is(sameInstance(UIName.of("div").qualify("h"))));
+        assertThat(UIName.of("div").qualify(""), is(sameInstance(UIName.of("div"))));
+    }
+
+    @Test
+    public void testQualifiedNameBeforeQualifying() {
+        final UIName literal = UIName.of("a:section");
+        final UIName qualified = UIName.of("section").qualify("a");
+        assertThat(literal.getPrefix(), is(nullValue()));
+        assertThat(literal.getLocalName(), is("a:section"));
+        assertThat(qualified.getPrefix(), is("a"));
+        assertThat(qualified.getLocalName(), is("section"));
+        assertThat(qualified.getQualifiedName(), is(literal.getQualifiedName()));
+        assertThat(qualified.qualify("b").getQualifiedName(), is("b:section"));
+    }
+
+    @Test
+    public void testQualifyingBeforeQualifiedName() {
+        final UIName qualified = UIName.of("article").qualify("a");
+        final UIName literal = UIName.of("a:article");
+        assertThat(qualified.getPrefix(), is("a"));
+        assertThat(qualified.getLocalName(), is("article"));
+        assertThat(literal.getPrefix(), is(nullValue()));
+        assertThat(literal.getLocalName(), is("a:article"));
+        assertThat(literal.qualify("b").getQualifiedName(), is("b:a:article"));
+    }
+
+    @Test
+    public void testQualifiedForms() throws Exception {
+        final UIName name = UIName.of("h", "div");
+        assertThat(name.getQualifiedName(), is("h:div"));
+        assertThat(name.appendOpenTag(new StringBuilder()).toString(), is("<h:div"));
+        assertThat(name.appendCloseTag(new StringBuilder()).toString(), is("</h:div>"));
+        assertThat(name.appendAttributeStart(new StringBuilder()).toString(), is("h:div=\""));
+    }
+
+    @Test
+    public void testEncodedForms() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (UIUtf8Output out = new UIUtf8Output(bytes)) {
+            UIName.of("übung").appendOpenTag(out);
+            UIName.of("übung").appendCloseTag(out);
+        }
+        assertThat(new String(bytes.toByteArray(), StandardCharsets.UTF_8), is("<übung</übung>"));
+    }
+}
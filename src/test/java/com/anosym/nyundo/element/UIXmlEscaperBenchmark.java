@@ -0,0 +1,80 @@
+package com.anosym.nyundo.element;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import com.anosym.nyundo.UIBenchmark;
+import com.google.common.base.Strings;
+import org.junit.Test;
+
+/**
+ * Compares {@link UIXmlEscaper} with the chain of {@link String#replace(CharSequence, CharSequence)} it replaced, on
+ * clean, mostly clean and heavily escaped attribute values.
+ *
+ * @author mochieng
+ */
+public class UIXmlEscaperBenchmark {
+
+    private static final int ITERATIONS = 200000;
+
+    private static final String CLEAN = Strings.repeat("A plain attribute value without markup. ", 8);
+    private static final String MOSTLY_CLEAN = Strings.repeat("A plain attribute value & some markup. ", 8);
+    private static final String HEAVY = Strings.repeat("<a href=\"?q=1&p=2\">\t</a>\n", 12);
+
+    @Test
+    public void testClean() throws Exception {
+        compare("clean", CLEAN);
+    }
+
+    @Test
+    public void testMostlyClean() throws Exception {
+        compare("mostly clean", MOSTLY_CLEAN);
+    }
+
+    @Test
+    public void testHeavilyEscaped() throws Exception {
+        compare("heavily escaped", HEAVY);
+    }
+
+    private static void compare(final String name, final String value) throws Exception {
+        assertThat(UIXmlEscaper.escapeAttribute(new StringBuilder(), value).toString(), is(replace(value)));
+
+        final StringBuilder out = new StringBuilder(value.length() * 2);
+
+        final UIBenchmark.Result replace = UIBenchmark.measure("escape " + name + ": String.replace", ITERATIONS,
+                new UIBenchmark.Operation() {
+
+                    @Override
+                    public Object run() {
+                        out.setLength(0);
+                        return out.append(replace(value));
+                    }
+                });
+        final UIBenchmark.Result escaper = UIBenchmark.measure("escape " + name + ": UIXmlEscaper", ITERATIONS,
+                new UIBenchmark.Operation() {
+
+                    @Override
+                    public Object run() throws Exception {
+                        out.setLength(0);
+                        return UIXmlEscaper.escapeAttribute(out, value);
+                    }
+                });
+        if (escaper.getBytesPerOperation() >= 0) {
+            assertThat(escaper.getBytesPerOperation(), is(lessThan(replace.getBytesPerOperation())));
+        }
+    }
+
+    /**
+     * The escape as done before, a new string per escaped character kind.
+     */
+    private static String replace(final String value) {
+        return value.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("\t", "&#9;")
+                .replace("\n", "&#10;")
+                .replace("\r", "&#13;");
+    }
+}
@@ -0,0 +1,85 @@
+package com.anosym.nyundo.element;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+/**
+ *
+ * @author mochieng
+ */
+public class UIXmlEscaperTest {
+
+    @Test
+    public void testEscapeText() throws Exception {
+        assertThat(text("a & b < c > d"), is("a &amp; b &lt; c &gt; d"));
+        assertThat(text("say \"hi\"\tthen\nleave\r"), is("say \"hi\"\tthen\nleave\r"));
+    }
+
+    @Test
+    public void testEscapeAttribute() throws Exception {
+        assertThat(attribute("a & b < c > d"), is("a &amp; b &lt; c &gt; d"));
+        assertThat(attribute("say \"hi\"\tthen\nleave\r"), is("say &quot;hi&quot;&#9;then&#10;leave&#13;"));
+    }
+
+    @Test
+    public void testCleanInputIsCopied() throws Exception {
+        final String clean = "A clean value, with spaces and 'quotes' only.";
+        assertThat(text(clean), is(clean));
+        assertThat(attribute(clean), is(clean));
+        assertThat(text(""), is(""));
+    }
+
+    @Test
+    public void testMostlyCleanInput() throws Exception {
+        assertThat(text("Terms & conditions apply to every purchase"),
+                is("Terms &amp; conditions apply to every purchase"));
+        assertThat(attribute("/search?q=nyundo&page=2"), is("/search?q=nyundo&amp;page=2"));
+    }
+
+    @Test
+    public void testFullyEscapedInput() throws Exception {
+        assertThat(text("<&>"), is("&lt;&amp;&gt;"));
+        assertThat(attribute("\"<&>\"\t\n\r"), is("&quot;&lt;&amp;&gt;&quot;&#9;&#10;&#13;"));
+    }
+
+    @Test
+    public void testEscapeRange() throws Exception {
+        final StringBuilder out = new StringBuilder();
+        assertThat(UIXmlEscaper.escapeText(out, "[a<b]", 1, 4), is(sameInstance((Appendable) out)));
+        assertThat(out.toString(), is("a&lt;b"));
+        assertThat(UIXmlEscaper.escapeAttribute(new StringBuilder(), "x\"y", 1, 2).toString(), is("&quot;"));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testEscapeRangeOutOfBounds() throws Exception {
+        UIXmlEscaper.escapeText(new StringBuilder(), "abc", 2, 4);
+    }
+
+    @Test
+    public void testSurrogatePairThroughUtf8Output() throws Exception {
+        final String face = "😀";
+        final String value = "a&" + face + "<b" + face;
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (UIUtf8Output out = new UIUtf8Output(bytes)) {
+            UIXmlEscaper.escapeText(out, value);
+            //The pair split over two calls, across the ascii run of the output.
+            UIXmlEscaper.escapeAttribute(out, value, 0, 3);
+            UIXmlEscaper.escapeAttribute(out, value, 3, value.length());
+        }
+        final String escaped = "a&amp;" + face + "&lt;b" + face;
+        assertThat(new String(bytes.toByteArray(), StandardCharsets.UTF_8), is(escaped + escaped));
+    }
+
+    private static String text(final String text) throws Exception {
+        return UIXmlEscaper.escapeText(new StringBuilder(), text).toString();
+    }
+
+    private static String attribute(final String value) throws Exception {
+        return UIXmlEscaper.escapeAttribute(new StringBuilder(), value).toString();
+    }
+}
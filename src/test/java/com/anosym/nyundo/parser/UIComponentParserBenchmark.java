@@ -0,0 +1,142 @@
+package com.anosym.nyundo.parser;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import com.anosym.nyundo.UIBenchmark;
+import com.anosym.nyundo.component.UIAttributeBinder;
+import com.anosym.nyundo.component.UIComponent;
+import com.anosym.nyundo.renderer.UIRendererRegistry;
+import com.anosym.nyundo.renderer.UITestRenderer;
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Strings;
+import com.google.common.collect.Maps;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.junit.Test;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Compares the streaming {@link UIComponentParser} with parsing a multi-megabyte page into a DOM first, then building
+ * the component tree from the DOM.
+ *
+ * @author mochieng
+ */
+public class UIComponentParserBenchmark {
+
+    private static final int ITERATIONS = 5;
+    private static final int ROWS = 30000;
+
+    private final UIRendererRegistry rendererRegistry = UIRendererRegistry.fromClassIndex();
+
+    @Test
+    public void testParseThroughput() throws Exception {
+        final byte[] page = page();
+        final UIComponentParser parser = new UIComponentParser(rendererRegistry);
+        final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        documentBuilderFactory.setNamespaceAware(true);
+        assertThat(count(parser.parse(new ByteArrayInputStream(page))), is(count(parseDom(documentBuilderFactory, page))));
+
+        final UIBenchmark.Result dom = UIBenchmark.measure("parse: DOM, then components", ITERATIONS,
+                new UIBenchmark.Operation() {
+
+                    @Override
+                    public Object run() throws Exception {
+                        return parseDom(documentBuilderFactory, page);
+                    }
+                });
+        final UIBenchmark.Result streaming = UIBenchmark.measure("parse: UIComponentParser", ITERATIONS,
+                new UIBenchmark.Operation() {
+
+                    @Override
+                    public Object run() throws Exception {
+                        return parser.parse(new ByteArrayInputStream(page));
+                    }
+                });
+        System.out.println(String.format(Locale.ROOT, "page of %d KB: DOM %.1f MB/s, UIComponentParser %.1f MB/s",
+                page.length / 1024, megabytesPerSecond(page, dom), megabytesPerSecond(page, streaming)));
+        if (streaming.getBytesPerOperation() >= 0) {
+            assertThat(streaming.getBytesPerOperation(), is(lessThan(dom.getBytesPerOperation())));
+        }
+    }
+
+    private static byte[] page() {
+        final StringBuilder page = new StringBuilder(ROWS * 160);
+        page.append("<html xmlns:t=\"").append(UITestRenderer.NAMESPACE).append("\"><body class=\"results\">\n");
+        for (int i = 0; i < ROWS; i++) {
+            page.append("  <div class=\"row\"><span>Item ").append(i).append(" &amp; more</span> ")
+                    .append("<t:form id=\"form").append(i).append("\" action=\"/items/").append(i).append("\">")
+                    .append("<t:input id=\"query\" name=\"q").append(i).append("\"/></t:form></div>\n");
+        }
+        page.append("</body></html>");
+        return page.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static double megabytesPerSecond(final byte[] page, final UIBenchmark.Result result) {
+        return page.length / (1024.0 * 1024.0) / (result.getNanosPerOperation() / 1e9);
+    }
+
+    private static int count(final UIComponent component) {
+        int count = 1;
+        for (UIComponent child : component) {
+            count += count(child);
+        }
+        return count;
+    }
+
+    /**
+     * The component tree built from a DOM, by the rules of {@link UIComponentParser}.
+     */
+    private UIComponent parseDom(final DocumentBuilderFactory documentBuilderFactory, final byte[] page)
+            throws Exception {
+        final Element root = documentBuilderFactory.newDocumentBuilder().parse(new ByteArrayInputStream(page))
+                .getDocumentElement();
+        return createComponent(root);
+    }
+
+    private UIComponent createComponent(final Element element) throws Exception {
+        final String namespace = Strings.nullToEmpty(element.getNamespaceURI());
+        final Class<? extends UIComponent> componentClass = namespace.isEmpty()
+                ? null : rendererRegistry.getComponentClass(namespace, element.getLocalName());
+        final NamedNodeMap attributes = element.getAttributes();
+        final UIComponent component;
+        if (componentClass == null) {
+            final Map<String, String> markupAttributes = Maps.newLinkedHashMap();
+            for (int i = 0; i < attributes.getLength(); i++) {
+                final Attr attribute = (Attr) attributes.item(i);
+                markupAttributes.put(attribute.getName(), attribute.getValue());
+            }
+            component = new UIMarkupComponent(element.getNamespaceURI(), element.getPrefix(), element.getLocalName(),
+                    markupAttributes);
+        } else {
+            component = componentClass.getConstructor().newInstance();
+            final UIAttributeBinder binder = UIAttributeBinder.forClass(componentClass);
+            for (int i = 0; i < attributes.getLength(); i++) {
+                final Attr attribute = (Attr) attributes.item(i);
+                if ("id".equals(attribute.getLocalName())) {
+                    component.setId(attribute.getValue());
+                } else {
+                    binder.setAttribute(component, attribute.getLocalName(), attribute.getValue());
+                }
+            }
+        }
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                component.addChild(createComponent((Element) child));
+            } else if (child.getNodeType() == Node.TEXT_NODE || child.getNodeType() == Node.CDATA_SECTION_NODE) {
+                final String text = child.getNodeValue();
+                if (componentClass == null || !CharMatcher.WHITESPACE.matchesAllOf(text)) {
+                    component.addChild(new UITextComponent(text));
+                }
+            }
+        }
+        return component;
+    }
+}
@@ -0,0 +1,126 @@
+package com.anosym.nyundo.parser;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import com.anosym.nyundo.component.UIComponent;
+import com.anosym.nyundo.element.UIRenderMode;
+import com.anosym.nyundo.renderer.UIRendererRegistry;
+import com.anosym.nyundo.renderer.UIRenderingManager;
+import com.anosym.nyundo.renderer.UITestComponents;
+import com.anosym.nyundo.renderer.UITestEventRenderer;
+import com.anosym.nyundo.renderer.UITestRenderer;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import java.io.StringReader;
+import javax.xml.stream.XMLStreamException;
+import org.junit.Test;
+
+/**
+ *
+ * @author mochieng
+ */
+public class UIComponentParserTest {
+
+    private static final String PAGE = "<html xmlns:t=\"" + UITestRenderer.NAMESPACE + "\">"
+            + "<!-- Search page -->"
+            + "<body class=\"search\">"
+            + "  <h1>Books &amp; more</h1>"
+            + "  <t:form id=\"search\" action=\"/search\">"
+            + "    <t:input id=\"query\" name=\"q\"/>"
+            + "  </t:form>"
+            + "</body>"
+            + "</html>";
+
+    private final UIRendererRegistry rendererRegistry = UIRendererRegistry.fromClassIndex();
+
+    @Test
+    public void testParseComponentTree() throws Exception {
+        final UIComponent html = new UIComponentParser(rendererRegistry).parse(new StringReader(PAGE));
+
+        assertThat(html, is(instanceOf(UIMarkupComponent.class)));
+        assertThat(((UIMarkupComponent) html).getAttributes(),
+                is((Object) ImmutableMap.of("xmlns:t", UITestRenderer.NAMESPACE)));
+        final UIComponent body = Iterables.getOnlyElement(html);
+        assertThat(((UIMarkupComponent) body).getName(), is("body"));
+        assertThat(body.getChildren().size(), is(4));
+        assertThat(((UITextComponent) Iterables.get(body, 0)).getContent(), is("  "));
+
+        final UIComponent heading = Iterables.get(body, 1);
+        final UIComponent headingText = Iterables.getOnlyElement(heading);
+        assertThat(((UITextComponent) headingText).getContent(), is("Books & more"));
+
+        final UIComponent form = Iterables.get(body, 3);
+        assertThat(form, is(instanceOf(UITestComponents.Form.class)));
+        assertThat(form.getComponentId().getSimpleId(), is("search"));
+        //Whitespace directly within a component is dropped.
+        final UIComponent input = Iterables.getOnlyElement(form);
+        assertThat(input, is(instanceOf(UITestComponents.Input.class)));
+        assertThat(input.getComponentId().getSimpleId(), is("query"));
+    }
+
+    @Test
+    public void testRenderParsedPage() throws Exception {
+        final UIComponent html = new UIComponentParser(rendererRegistry).parse(new StringReader(PAGE));
+        final StringBuilder xml = new StringBuilder();
+        new UIRenderingManager(rendererRegistry).renderTo(html, xml, UIRenderMode.COMPACT);
+
+        assertThat(xml.toString(), is("<html xmlns:t=\"" + UITestRenderer.NAMESPACE + "\"><body class=\"search\">"
+                + "  <h1>Books &amp; more</h1>"
+                + "  <form action=\"/search\"><input name=\"q\"/></form>"
+                + "</body></html>"));
+    }
+
+    @Test
+    public void testRenderMixedContentAsParsed() throws Exception {
+        final String page = "<p class=\"\" title=\"Intro\">Read <b>this</b> <i>now</i></p>";
+        final UIComponent p = new UIComponentParser(rendererRegistry).parse(new StringReader(page));
+        final StringBuilder xml = new StringBuilder();
+        new UIRenderingManager(rendererRegistry).renderTo(p, xml, UIRenderMode.COMPACT);
+
+        assertThat(xml.toString(), is(page));
+    }
+
+    @Test
+    public void testRenderMarkupWithinPrefixedComponent() throws Exception {
+        final String page = "<e:section xmlns:e=\"" + UITestEventRenderer.NAMESPACE + "\" uri=\"urn:s\">"
+                + "<div class=\"c\">x</div></e:section>";
+        final UIComponent section = new UIComponentParser(rendererRegistry).parse(new StringReader(page));
+        final UIMarkupComponent div = (UIMarkupComponent) Iterables.getOnlyElement(section);
+        assertThat(div.getNamespace(), is(nullValue()));
+        assertThat(div.getPrefix(), is(nullValue()));
+
+        final String expected = "<s:section targetNamespace=\"urn:s\" xmlns:s=\"urn:s\">"
+                + "<div class=\"c\">x</div></s:section>";
+        final UIRenderingManager renderingManager = new UIRenderingManager(rendererRegistry);
+        final StringBuilder xml = new StringBuilder();
+        renderingManager.renderTo(section, xml, UIRenderMode.COMPACT);
+        assertThat(xml.toString(), is(expected));
+        assertThat(renderingManager.render(section).renderXml(UIRenderMode.COMPACT).toString(), is(expected));
+        final StringBuilder flat = new StringBuilder();
+        renderingManager.renderFlat(section).renderTo(flat, UIRenderMode.COMPACT);
+        assertThat(flat.toString(), is(expected));
+    }
+
+    @Test
+    public void testDuplicateSiblingId() throws Exception {
+        try {
+            new UIComponentParser(rendererRegistry).parse(new StringReader("<form xmlns:t=\"" + UITestRenderer.NAMESPACE
+                    + "\">\n<t:input id=\"query\"/>\n<t:input id=\"query\"/></form>"));
+            fail("The duplicate id must fail the parse");
+        } catch (XMLStreamException ex) {
+            assertThat(ex.getMessage(), containsString("Duplicate sibling id: query"));
+            assertThat(ex.getLocation().getLineNumber(), is(3));
+        }
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void testUnknownComponentAttribute() throws Exception {
+        new UIComponentParser(rendererRegistry).parse(new StringReader(
+                "<t:input xmlns:t=\"" + UITestRenderer.NAMESPACE + "\" size=\"4\"/>"));
+    }
+}
@@ -0,0 +1,96 @@
+package com.anosym.nyundo.renderer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.anosym.nyundo.element.UIRenderMode;
+import org.junit.Test;
+
+/**
+ *
+ * @author mochieng
+ */
+public class UIIncrementalSessionTest {
+
+    private final UIRenderingManager renderingManager = new UIRenderingManager(UIRendererRegistry.fromClassIndex());
+
+    @Test
+    public void testUpdatePatches() throws Exception {
+        final UITestComponents.Form form = new UITestComponents.Form("form", "/login");
+        final UITestComponents.Input email = new UITestComponents.Input("email", "email");
+        form.addChild(email);
+        form.addChild(new UITestComponents.Input("password", "password"));
+        try (UIIncrementalSession session = renderingManager.openIncrementalSession()) {
+            session.render(form);
+            assertThat(session.update().isEmpty(), is(true));
+
+            email.setName("login");
+            assertThat(render(session.update()), is("<patch><set-attribute id=\":form:email\" name=\"name\" value=\"login\"/></patch>"));
+            assertThat(compact(session), is(fullRender(form)));
+
+            form.addChild(new UITestComponents.Input("remember", "remember"));
+            form.removeChild(email);
+            assertThat(render(session.update()), is("<patch><remove id=\":form:email\"/>"
+                    + "<insert id=\":form:remember\" parent=\":form\" position=\"1\"><input name=\"remember\"/></insert></patch>"));
+            assertThat(compact(session), is(fullRender(form)));
+
+            form.addChild(new UITestComponents.Form("password", "/reset"));
+            assertThat(render(session.update()),
+                    is("<patch><replace id=\":form:password\"><form action=\"/reset\"/></replace></patch>"));
+            assertThat(compact(session), is(fullRender(form)));
+        }
+    }
+
+    @Test
+    public void testUpdateFollowsChangedPaths() throws Exception {
+        final UITestComponents.Form form = new UITestComponents.Form("form", "/login");
+        final UITestComponents.Input email = new UITestComponents.Input("email", "email");
+        form.addChild(email);
+        try (UIIncrementalSession session = renderingManager.openIncrementalSession()) {
+            session.render(form);
+            assertThat(form.hasChangedDescendants(), is(false));
+
+            email.setName("login");
+            assertThat(form.hasChangedDescendants(), is(true));
+            assertThat(session.update().isEmpty(), is(false));
+            assertThat(email.isChanged(), is(false));
+            assertThat(form.hasChangedDescendants(), is(false));
+            assertThat(session.update().isEmpty(), is(true));
+        }
+    }
+
+    @Test
+    public void testRemovedSubtreeRenderedAfresh() throws Exception {
+        final UITestComponents.Form form = new UITestComponents.Form("form", "/login");
+        final UITestComponents.Form inner = new UITestComponents.Form("inner", "/inner");
+        final UITestComponents.Input email = new UITestComponents.Input("email", "email");
+        inner.addChild(email);
+        form.addChild(inner);
+        try (UIIncrementalSession session = renderingManager.openIncrementalSession()) {
+            session.render(form);
+
+            form.removeChild(inner);
+            assertThat(render(session.update()), is("<patch><remove id=\":form:inner\"/></patch>"));
+
+            email.setName("login");
+            form.addChild(inner);
+            assertThat(render(session.update()), is("<patch><insert id=\":form:inner\" parent=\":form\" position=\"0\">"
+                    + "<form action=\"/inner\"><input name=\"login\"/></form></insert></patch>"));
+            assertThat(compact(session), is(fullRender(form)));
+        }
+    }
+
+    private String fullRender(final UITestComponents.Form form) {
+        return renderingManager.render(form).renderXml(UIRenderMode.COMPACT).toString();
+    }
+
+    private static String compact(final UIIncrementalSession session) {
+        return session.getRootElement().renderXml(UIRenderMode.COMPACT).toString();
+    }
+
+    private static String render(final UIRenderPatch patch) throws Exception {
+        final StringBuilder out = new StringBuilder();
+        patch.renderTo(out);
+        return out.toString();
+    }
+}
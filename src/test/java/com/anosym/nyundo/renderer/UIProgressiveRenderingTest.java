@@ -0,0 +1,135 @@
+package com.anosym.nyundo.renderer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.anosym.nyundo.element.UIByteBufferPool;
+import com.anosym.nyundo.element.UIRenderMode;
+import com.anosym.nyundo.element.UIUtf8Output;
+import com.google.common.collect.Lists;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ *
+ * @author mochieng
+ */
+public class UIProgressiveRenderingTest {
+
+    private static final int CHUNK_SIZE = 256;
+
+    @Test
+    public void testChunkedRenderToSlowReader() throws Exception {
+        final UIRenderingManager renderingManager = new UIRenderingManager(UIRendererRegistry.fromClassIndex());
+        final UITestComponents.Fieldset fieldset = new UITestComponents.Fieldset("fieldset", "Search");
+        for (int i = 0; i < 100; i++) {
+            fieldset.addChild(new UITestComponents.Input("input" + i, "input" + i));
+        }
+        final UIByteBufferPool bufferPool = new UIByteBufferPool(CHUNK_SIZE, 1, false);
+        final SlowChannel channel = new SlowChannel(2);
+        final LastFieldset last = new LastFieldset(channel);
+        fieldset.addChild(last);
+
+        try (UIUtf8Output out = new UIUtf8Output(channel, bufferPool)) {
+            renderingManager.renderTo(fieldset, out, UIRenderMode.COMPACT);
+        }
+
+        final StringBuilder expected = new StringBuilder();
+        renderingManager.renderTo(fieldset, expected, UIRenderMode.COMPACT);
+        assertThat(new String(channel.bytes.toByteArray(), StandardCharsets.UTF_8), is(expected.toString()));
+        //The flush point after the legend is the first chunk, written before the last component is rendered.
+        assertThat(channel.chunkSizes.get(0), is("<fieldset title=\"Search\"><legend>Search</legend>".length()));
+        assertThat(last.chunksBeforeRender, is(greaterThan(1)));
+        //Only the bytes rendered since the last chunk are retained, within the single buffer.
+        final int renderedBeforeLast = expected.indexOf("<fieldset title=\"Last\">");
+        assertThat(renderedBeforeLast - last.bytesBeforeRender, is(lessThanOrEqualTo(CHUNK_SIZE)));
+        assertTrue(channel.chunkSizes.size() > expected.length() / CHUNK_SIZE);
+        for (int chunkSize : channel.chunkSizes) {
+            assertThat(chunkSize, is(lessThanOrEqualTo(CHUNK_SIZE)));
+        }
+        //A single buffer was used, and returned to the pool.
+        assertThat(bufferPool.acquire().capacity(), is(CHUNK_SIZE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonBlockingChannelRejected() throws Exception {
+        final Pipe pipe = Pipe.open();
+        try {
+            pipe.sink().configureBlocking(false);
+            new UIUtf8Output(pipe.sink());
+        } finally {
+            pipe.sink().close();
+            pipe.source().close();
+        }
+    }
+
+    /**
+     * The last child, recording what has been written to the channel by the time it is rendered.
+     */
+    private static final class LastFieldset extends UITestComponents.Fieldset {
+
+        private final SlowChannel channel;
+        private int chunksBeforeRender = -1;
+        private int bytesBeforeRender = -1;
+
+        private LastFieldset(final SlowChannel channel) {
+            super("last", "Last");
+            this.channel = channel;
+        }
+
+        @Override
+        public String getLegend() {
+            if (chunksBeforeRender < 0) {
+                chunksBeforeRender = channel.chunkSizes.size();
+                bytesBeforeRender = channel.bytes.size();
+            }
+            return super.getLegend();
+        }
+    }
+
+    /**
+     * A reader which takes some time for every chunk, recording the size of the chunk.
+     */
+    private static final class SlowChannel implements WritableByteChannel {
+
+        private final long delayMillis;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final List<Integer> chunkSizes = Lists.newArrayList();
+
+        private SlowChannel(final long delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public int write(final ByteBuffer src) {
+            final int size = src.remaining();
+            chunkSizes.add(size);
+            while (src.hasRemaining()) {
+                bytes.write(src.get());
+            }
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return size;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
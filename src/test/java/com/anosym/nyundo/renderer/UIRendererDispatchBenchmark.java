@@ -0,0 +1,97 @@
+package com.anosym.nyundo.renderer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.anosym.nyundo.UIBenchmark;
+import com.anosym.nyundo.annotation.Component;
+import com.anosym.nyundo.component.UIComponent;
+import com.anosym.nyundo.util.UIPair;
+import com.anosym.nyundo.util.UIRendererKey;
+import com.anosym.nyundo.util.UIRendererUtil;
+import org.junit.Test;
+
+/**
+ * Compares the per-class renderer dispatch of {@link UIRenderingManager} with resolving the renderer keys of every
+ * component, over a tree of many component types.
+ *
+ * @author mochieng
+ */
+public class UIRendererDispatchBenchmark {
+
+    private static final int ITERATIONS = 200000;
+
+    @Component(name = "dispatch-a", namespace = UITestRenderer.NAMESPACE)
+    public static class A extends UIComponent {
+    }
+
+    @Component(name = "dispatch-b", namespace = UITestRenderer.NAMESPACE)
+    public static class B extends UIComponent {
+    }
+
+    @Component(name = "dispatch-c", namespace = UITestRenderer.NAMESPACE)
+    public static class C extends UIComponent {
+    }
+
+    @Component(name = "dispatch-d", namespace = UITestRenderer.NAMESPACE)
+    public static class D extends UIComponent {
+    }
+
+    @Component(name = "dispatch-e", namespace = UITestRenderer.NAMESPACE)
+    public static class E extends UIComponent {
+    }
+
+    @Component(name = "dispatch-f", namespace = UITestRenderer.NAMESPACE)
+    public static class F extends UIComponent {
+    }
+
+    @Test
+    public void testDispatchOncePerClass() {
+        final UIRendererRegistry rendererRegistry = UIRendererRegistry.fromClassIndex();
+        final UIRenderingManager renderingManager = new UIRenderingManager(rendererRegistry);
+        final UIComponent[] components = {new A(), new B(), new C(), new D(), new E(), new F(),
+            new UITestComponents.Form(), new UITestComponents.Input(), new UITestComponents.Menu(),
+            new UITestComponents.Fieldset()};
+        for (UIComponent component : components) {
+            assertThat(renderingManager.getRenderer(component), is(sameInstance(resolve(rendererRegistry, component))));
+        }
+
+        final UIBenchmark.Result keys = UIBenchmark.measure("dispatch: renderer keys per component", ITERATIONS,
+                new UIBenchmark.Operation() {
+
+                    @Override
+                    public Object run() {
+                        UIRenderer renderer = null;
+                        for (UIComponent component : components) {
+                            renderer = resolve(rendererRegistry, component);
+                        }
+                        return renderer;
+                    }
+                });
+        final UIBenchmark.Result dispatch = UIBenchmark.measure("dispatch: per-class table", ITERATIONS,
+                new UIBenchmark.Operation() {
+
+                    @Override
+                    public Object run() {
+                        UIRenderer renderer = null;
+                        for (UIComponent component : components) {
+                            renderer = renderingManager.getRenderer(component);
+                        }
+                        return renderer;
+                    }
+                });
+        if (dispatch.getBytesPerOperation() >= 0) {
+            assertThat(dispatch.getBytesPerOperation(), is(0L));
+        }
+    }
+
+    /**
+     * The renderer lookup as done for every component, before the per-class dispatch.
+     */
+    private static UIRenderer resolve(final UIRendererRegistry rendererRegistry, final UIComponent component) {
+        final UIPair<UIRendererKey, UIRendererKey> rendererKeys = UIRendererUtil.getRendererKey(component);
+        final UIRenderer renderer = rendererRegistry.getRenderer(rendererKeys.getFirst());
+        return renderer != null ? renderer : rendererRegistry.getRenderer(rendererKeys.getSecond());
+    }
+}
@@ -0,0 +1,252 @@
+package com.anosym.nyundo.renderer;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import com.anosym.nyundo.component.UIAttributeBinderTest;
+import com.anosym.nyundo.component.UIComponent;
+import com.anosym.nyundo.element.UIElement;
+import com.anosym.nyundo.element.UIFragment;
+import com.anosym.nyundo.element.UINamespace;
+import com.anosym.nyundo.element.UIRenderMode;
+import com.anosym.nyundo.util.UIRendererKey;
+import com.google.common.collect.Iterables;
+import org.junit.Test;
+
+/**
+ *
+ * @author mochieng
+ */
+public class UIRenderingManagerTest {
+
+    @Test
+    public void testRegistryFromClassIndex() {
+        final UIRendererRegistry registry = UIRendererRegistry.fromClassIndex();
+
+        assertThat(registry.getRenderer(new UIRendererKey(UITestRenderer.NAMESPACE, "")), is(instanceOf(UITestRenderer.class)));
+        assertThat(registry.getComponentClass(UITestRenderer.NAMESPACE, "input"),
+                is(sameInstance((Object) UITestComponents.Input.class)));
+    }
+
+    @Test
+    public void testRender() {
+        final UIRenderingManager renderingManager = new UIRenderingManager(UIRendererRegistry.fromClassIndex());
+        final UITestComponents.Form form = new UITestComponents.Form("form", "/login");
+        form.addChild(new UITestComponents.Input("email", "email"));
+        final UIElement element = renderingManager.render(form);
+
+        assertThat(element.renderXml(UIRenderMode.COMPACT).toString(),
+                is("<form action=\"/login\"><input name=\"email\"/></form>"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRenderWithoutRenderer() {
+        final UIRenderingManager renderingManager = new UIRenderingManager(UIRendererRegistry.fromClassIndex());
+        renderingManager.render(new UIAttributeBinderTest.InputComponent());
+    }
+
+    @Test
+    public void testSessionsDoNotShareRoots() {
+        final UIRenderingManager renderingManager = new UIRenderingManager(UIRendererRegistry.fromClassIndex());
+        final UIRendererContext context;
+        try (UIRenderSession session = renderingManager.openSession()) {
+            context = session.getContext();
+            session.render(new UITestComponents.Form("first", "/first"));
+
+            assertThat(context.getRootComponent().getComponentId().getSimpleId(), is("first"));
+        }
+
+        try (UIRenderSession session = renderingManager.openSession()) {
+            session.render(new UITestComponents.Form("second", "/second"));
+
+            assertThat(session.getContext().getRootComponent().getComponentId().getSimpleId(), is("second"));
+            try {
+                context.getRootComponent();
+                fail("The context of a closed session must not reach the next session");
+            } catch (IllegalStateException ex) {
+                //The session is closed.
+            }
+        }
+    }
+
+    @Test
+    public void testParallelRenderIsDeterministic() {
+        final UITestComponents.Form form = new UITestComponents.Form("form", "/register");
+        for (int i = 0; i < 50; i++) {
+            final UITestComponents.Form fieldset = new UITestComponents.Form("fieldset" + i, "/fieldset" + i);
+            for (int j = 0; j < 10; j++) {
+                fieldset.addChild(new UITestComponents.Input("input" + j, "field" + i + "." + j));
+            }
+            form.addChild(fieldset);
+        }
+        try (UIRenderingManager renderingManager = new UIRenderingManager(UIRendererRegistry.fromClassIndex())) {
+            final String sequential = renderingManager.render(form).renderXml().toString();
+            try (UIRenderSession session = renderingManager.openSession()) {
+                session.setParallelism(8);
+
+                assertThat(session.render(form).renderXml().toString(), is(sequential));
+            }
+        }
+    }
+
+    @Test
+    public void testParallelRenderKeepsInheritedPrefix() {
+        final UITestComponents.Section section = new UITestComponents.Section("section", "urn:test:section");
+        final UITestComponents.Form form = new UITestComponents.Form("form", "/search");
+        form.addChild(new UITestComponents.Menu("home", "Home"));
+        form.addChild(new UITestComponents.Menu("about", "About"));
+        section.addChild(form);
+        final String expected = "<s:section targetNamespace=\"urn:test:section\" xmlns:s=\"urn:test:section\">"
+                + "<s:form action=\"/search\"><s:menu title=\"Home\"/><s:menu title=\"About\"/></s:form></s:section>";
+        try (UIRenderingManager renderingManager = new UIRenderingManager(UIRendererRegistry.fromClassIndex())) {
+            for (int i = 0; i < 2; i++) {
+                try (UIRenderSession session = renderingManager.openSession()) {
+                    session.setParallelism(2);
+
+                    assertThat(session.render(section).renderXml(UIRenderMode.COMPACT).toString(), is(expected));
+                }
+            }
+            assertThat(renderingManager.getFragmentCache().getStats().hitCount(), is(2L));
+        }
+    }
+
+    @Test
+    public void testCacheableFragments() {
+        final UIRenderingManager renderingManager = new UIRenderingManager(UIRendererRegistry.fromClassIndex());
+        final UITestComponents.Form form = new UITestComponents.Form("form", "/search");
+        final UITestComponents.Menu menu = new UITestComponents.Menu("menu", "Main");
+        final UITestComponents.Input query = new UITestComponents.Input("query", "query");
+        menu.addChild(query);
+        form.addChild(menu);
+        form.addChild(new UITestComponents.Menu("other", "Other"));
+        final String expected = "<form action=\"/search\"><menu title=\"Main\"><input name=\"query\"/></menu>"
+                + "<menu title=\"Other\"/></form>";
+
+        assertThat(renderingManager.render(form).renderXml(UIRenderMode.COMPACT).toString(), is(expected));
+        final UIElement cached = renderingManager.render(form);
+        assertThat(cached.renderXml(UIRenderMode.COMPACT).toString(), is(expected));
+        //The menu with children is not cached, as its class does not opt in.
+        assertThat(Iterables.get(cached.getChildren(), 0), is(not(instanceOf(UIFragment.class))));
+        assertThat(Iterables.get(cached.getChildren(), 1), is(instanceOf(UIFragment.class)));
+
+        final UIFragmentCache fragmentCache = renderingManager.getFragmentCache();
+        assertThat(fragmentCache.getStats().missCount(), is(1L));
+        assertThat(fragmentCache.getStats().hitCount(), is(1L));
+        menu.removeChild(query);
+        renderingManager.render(form);
+        assertThat(fragmentCache.size(), is(2L));
+        fragmentCache.invalidate(menu);
+        assertThat(fragmentCache.size(), is(1L));
+        fragmentCache.invalidate(UITestComponents.Menu.class);
+        assertThat(fragmentCache.size(), is(0L));
+    }
+
+    @Test
+    public void testCachedFragmentsKeyedByInheritedPrefix() {
+        final UIFragmentCache fragmentCache = new UIFragmentCache();
+        final UITestComponents.Menu menu = new UITestComponents.Menu("menu", "Main");
+        final UIElement html = new UIElement("html", null);
+        html.setTargetNamespace(new UINamespace("http://www.w3.org/1999/xhtml", "h"));
+        fragmentCache.put(menu, new UIElement("menu", html));
+
+        assertThat(fragmentCache.getMarkup(menu, "h"), is("<h:menu/>"));
+        assertThat(fragmentCache.getMarkup(menu, null), is(nullValue()));
+        assertThat(fragmentCache.get(menu, new UIElement("body", null)), is(nullValue()));
+        assertThat(fragmentCache.get(menu, new UIElement("body", html)).getMarkup(), is("<h:menu/>"));
+    }
+
+    @Test
+    public void testRenderSubtree() {
+        final UIRenderingManager renderingManager = new UIRenderingManager(UIRendererRegistry.fromClassIndex());
+        final UITestComponents.Form form = new UITestComponents.Form("form", "/search");
+        form.addChild(new UITestComponents.Input("query", "query"));
+        final UITestComponents.Form results = new UITestComponents.Form("results", "/results");
+        results.addChild(new UITestComponents.Input("page", "page"));
+        form.addChild(results);
+
+        final UIElement element = renderingManager.renderSubtree(form, ":form:results");
+        assertThat(element.renderXml(UIRenderMode.COMPACT).toString(),
+                is("<form action=\"/results\"><input name=\"page\"/></form>"));
+        assertThat(element.getParentElement().renderXml(UIRenderMode.COMPACT).toString(),
+                is("<form>" + element.renderXml(UIRenderMode.COMPACT) + "</form>"));
+    }
+
+    @Test
+    public void testEventRenderingMatchesElementRendering() throws Exception {
+        final UIRenderingManager renderingManager = new UIRenderingManager(UIRendererRegistry.fromClassIndex());
+        final UITestComponents.Fieldset fieldset = new UITestComponents.Fieldset("fieldset", "Login & co");
+        final UITestComponents.Form form = new UITestComponents.Form("form", "/login");
+        form.addChild(new UITestComponents.Input("email", "email"));
+        fieldset.addChild(form);
+        fieldset.addChild(new UITestComponents.Input("remember", "remember"));
+        final UITestComponents.Form page = new UITestComponents.Form("page", "/page");
+        page.addChild(fieldset);
+
+        for (UITestComponents.Form root : new UITestComponents.Form[]{null, page}) {
+            final UIComponent component = root == null ? fieldset : root;
+            for (UIRenderMode mode : UIRenderMode.values()) {
+                final StringBuilder events = new StringBuilder();
+                renderingManager.renderTo(component, events, mode);
+                assertThat(events.toString(), is(renderingManager.render(component).renderXml(mode).toString()));
+            }
+        }
+        final StringBuilder events = new StringBuilder();
+        renderingManager.renderTo(fieldset, events, UIRenderMode.COMPACT);
+        assertThat(events.toString(), is("<fieldset title=\"Login &amp; co\"><legend>Login &amp; co</legend>"
+                + "<form action=\"/login\"><input name=\"email\"/></form><input name=\"remember\"/></fieldset>"));
+    }
+
+    @Test
+    public void testNestedElementRenderersKeepNamespace() throws Exception {
+        final UIRenderingManager renderingManager = new UIRenderingManager(UIRendererRegistry.fromClassIndex());
+        final UITestComponents.Section section = new UITestComponents.Section("section", "urn:test:section");
+        section.addChild(new UITestComponents.Input("email", "email"));
+        section.addChild(new UITestComponents.Menu("menu", "Main"));
+        final String expected = "<s:section targetNamespace=\"urn:test:section\" xmlns:s=\"urn:test:section\">"
+                + "<s:input name=\"email\"/><s:menu title=\"Main\"/></s:section>";
+
+        for (int i = 0; i < 2; i++) {
+            final StringBuilder events = new StringBuilder();
+            renderingManager.renderTo(section, events, UIRenderMode.COMPACT);
+            assertThat(events.toString(), is(expected));
+        }
+        assertThat(renderingManager.getFragmentCache().getStats().hitCount(), is(1L));
+        assertThat(renderingManager.render(section).renderXml(UIRenderMode.COMPACT).toString(), is(expected));
+        assertThat(renderingManager.getFragmentCache().getStats().hitCount(), is(2L));
+    }
+
+    @Test
+    public void testEventRendererRendersElements() {
+        final UIRenderingManager renderingManager = new UIRenderingManager(UIRendererRegistry.fromClassIndex());
+        final UITestComponents.Fieldset fieldset = new UITestComponents.Fieldset("fieldset", "Login");
+        fieldset.addChild(new UITestComponents.Input("email", "email"));
+        fieldset.addChild(new UITestComponents.Input("remember", "remember"));
+
+        try (UIRenderSession session = renderingManager.openSession()) {
+            final UIElement element = new UITestEventRenderer().render(fieldset, session.getContext());
+            assertThat(element.renderXml(UIRenderMode.COMPACT).toString(),
+                    is(renderingManager.render(fieldset).renderXml(UIRenderMode.COMPACT).toString()));
+        }
+    }
+
+    @Test
+    public void testRenderFlatMatchesElementRendering() throws Exception {
+        final UIRenderingManager renderingManager = new UIRenderingManager(UIRendererRegistry.fromClassIndex());
+        final UITestComponents.Form page = new UITestComponents.Form("page", "/page?a=1&b=2");
+        final UITestComponents.Fieldset fieldset = new UITestComponents.Fieldset("fieldset", "Login & co");
+        fieldset.addChild(new UITestComponents.Input("email", "email"));
+        page.addChild(fieldset);
+        page.addChild(new UITestComponents.Input("submit", "submit"));
+
+        for (UIRenderMode mode : UIRenderMode.values()) {
+            final StringBuilder flat = new StringBuilder();
+            renderingManager.renderFlat(page).renderTo(flat, mode);
+            assertThat(flat.toString(), is(renderingManager.render(page).renderXml(mode).toString()));
+        }
+    }
+}
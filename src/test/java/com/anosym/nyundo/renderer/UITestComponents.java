@@ -0,0 +1,100 @@
+package com.anosym.nyundo.renderer;
+
+import com.anosym.nyundo.annotation.Cacheable;
+import com.anosym.nyundo.annotation.Component;
+import com.anosym.nyundo.component.UIComponent;
+
+/**
+ * Components rendered by {@link UITestRenderer}.
+ *
+ * @author mochieng
+ */
+public final class UITestComponents {
+
+    private UITestComponents() {
+    }
+
+    @Component(name = "form", namespace = UITestRenderer.NAMESPACE)
+    public static class Form extends UIComponent {
+
+        private String action;
+
+        public Form() {
+        }
+
+        public Form(final String id, final String action) {
+            super(id);
+            this.action = action;
+        }
+    }
+
+    @Component(name = "input", namespace = UITestRenderer.NAMESPACE)
+    public static class Input extends UIComponent {
+
+        private String name;
+
+        public Input() {
+        }
+
+        public Input(final String id, final String name) {
+            super(id);
+            this.name = name;
+        }
+
+        public void setName(final String name) {
+            this.name = name;
+            markChanged();
+        }
+    }
+
+    @Cacheable
+    @Component(name = "menu", namespace = UITestRenderer.NAMESPACE)
+    public static class Menu extends UIComponent {
+
+        private String title;
+
+        public Menu() {
+        }
+
+        public Menu(final String id, final String title) {
+            super(id);
+            this.title = title;
+        }
+    }
+
+    @Component(name = "fieldset", namespace = UITestEventRenderer.NAMESPACE)
+    public static class Fieldset extends UIComponent {
+
+        private String legend;
+
+        public Fieldset() {
+        }
+
+        public Fieldset(final String id, final String legend) {
+            super(id);
+            this.legend = legend;
+        }
+
+        public String getLegend() {
+            return legend;
+        }
+    }
+
+    @Component(name = "section", namespace = UITestEventRenderer.NAMESPACE)
+    public static class Section extends UIComponent {
+
+        private String uri;
+
+        public Section() {
+        }
+
+        public Section(final String id, final String uri) {
+            super(id);
+            this.uri = uri;
+        }
+
+        public String getUri() {
+            return uri;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.anosym.nyundo.renderer;
+
+import com.anosym.nyundo.annotation.Renderer;
+import com.anosym.nyundo.component.UIComponent;
+import com.anosym.nyundo.element.UINamespace;
+import java.io.IOException;
+import javax.annotation.Nonnull;
+
+/**
+ * Renders {@link UITestComponents.Fieldset} as events, flushing once its legend is rendered, and
+ * {@link UITestComponents.Section} within its own prefixed namespace.
+ *
+ * @author mochieng
+ */
+@Renderer(namespace = UITestEventRenderer.NAMESPACE)
+public class UITestEventRenderer extends UIAbstractEventRenderer {
+
+    public static final String NAMESPACE = "http://nyundo.anosym.com/test/events";
+
+    @Override
+    public void render(@Nonnull final UIComponent component, @Nonnull final UIEventContext context) throws IOException {
+        if (component instanceof UITestComponents.Section) {
+            context.startElement("section");
+            context.targetNamespace(new UINamespace(((UITestComponents.Section) component).getUri(), "s"));
+            for (UIComponent child : component) {
+                context.render(child);
+            }
+            context.endElement();
+            return;
+        }
+        final String legend = ((UITestComponents.Fieldset) component).getLegend();
+        context.startElement("fieldset");
+        context.attribute("title", legend);
+        context.startElement("legend");
+        context.text(legend);
+        context.endElement();
+        context.flush();
+        for (UIComponent child : component) {
+            context.render(child);
+        }
+        context.endElement();
+    }
+}
@@ -0,0 +1,38 @@
+package com.anosym.nyundo.renderer;
+
+import com.anosym.nyundo.annotation.Component;
+import com.anosym.nyundo.annotation.Renderer;
+import com.anosym.nyundo.component.UIAttributeBinder;
+import com.anosym.nyundo.component.UIComponent;
+import com.anosym.nyundo.element.UIElement;
+import com.anosym.nyundo.util.UIRendererUtil;
+import com.google.common.collect.ImmutableList;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Renders every test component as an element named after the component, with its bound attributes. Children are
+ * rendered as independent subtrees.
+ *
+ * @author mochieng
+ */
+@Renderer(namespace = UITestRenderer.NAMESPACE)
+public class UITestRenderer implements UIRenderer {
+
+    public static final String NAMESPACE = "http://nyundo.anosym.com/test/render";
+
+    @Override
+    public UIElement render(@Nonnull final UIComponent component, @Nonnull final UIRendererContext context) {
+        final UIElement element = context.getCurrentElement();
+        UIAttributeBinder.bind(component, element);
+        context.renderIndependent(ImmutableList.copyOf(component));
+        return element;
+    }
+
+    @Override
+    public UIElement createElement(@Nonnull final UIComponent component, @Nullable final UIElement parentElement) {
+        final Class<? extends UIComponent> componentClass = component.getClass();
+        return new UIElement(UIRendererUtil.getComponentName(componentClass, componentClass.getAnnotation(Component.class)),
+                parentElement);
+    }
+}
@@ -0,0 +1,50 @@
+package com.anosym.nyundo.template;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.anosym.nyundo.element.UIElement;
+import com.anosym.nyundo.element.UIRepresentable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+/**
+ *
+ * @author mochieng
+ */
+public class UITemplateRegistryTest {
+
+    @Test
+    public void testTemplateIsCompiledOnce() {
+        final UITemplateRegistry registry = new UITemplateRegistry();
+
+        assertThat(registry.getTemplate("nextButton"), is(sameInstance(registry.getTemplate("nextButton"))));
+    }
+
+    @Test
+    public void testApplyTemplate() throws Exception {
+        final UITemplate template = new UITemplateRegistry().getTemplate("nextButton");
+        final StringBuilder xml = new StringBuilder();
+        template.apply(xml, ImmutableMap.of("name", "Next", "action", "/steps/2"),
+                ImmutableList.<UIRepresentable>of(new UIElement("span", null)));
+
+        assertThat(xml.toString(), is("<button type=\"submit\" name=\"Next\" formaction=\"/steps/2\">Next<span/>\n</button>\n"));
+    }
+
+    @Test
+    public void testMissingAttributeRendersEmpty() throws Exception {
+        final UITemplate template = UITemplateCompiler.compile("link", "<a href=\"${href}\">#{children}</a>");
+        final StringBuilder xml = new StringBuilder();
+        template.apply(xml, ImmutableMap.<String, Object>of());
+
+        assertThat(xml.toString(), is("<a href=\"\"></a>"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUndefinedTemplate() {
+        new UITemplateRegistry().getTemplate("previousButton");
+    }
+
+}
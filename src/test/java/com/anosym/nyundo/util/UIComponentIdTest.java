@@ -2,6 +2,7 @@ package com.anosym.nyundo.util;
 
 import static com.anosym.nyundo.util.UIComponentId.fromCanonicalId;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertThat;
 
@@ -17,10 +18,8 @@ public class UIComponentIdTest {
     @Test
     public void testParentQueue() {
         final UIComponentId one = new UIComponentId("id0");
-        final UIComponentId two = new UIComponentId("id1");
-        two.setParentId(one);
-        final UIComponentId three = new UIComponentId("id2");
-        three.setParentId(two);
+        final UIComponentId two = new UIComponentId(one, "id1", false);
+        final UIComponentId three = new UIComponentId(two, "id2", false);
         final Deque<UIComponentId> stack = three.getAncestryStack();
 
         assertThat(stack, hasSize(3));
@@ -32,10 +31,8 @@ public class UIComponentIdTest {
     @Test
     public void testParentQueueNotInOrder() {
         final UIComponentId one = new UIComponentId("id0");
-        final UIComponentId two = new UIComponentId("id1");
-        two.setParentId(one);
-        final UIComponentId three = new UIComponentId("id2");
-        three.setParentId(one);
+        final UIComponentId two = new UIComponentId(one, "id1", false);
+        final UIComponentId three = new UIComponentId(one, "id2", false);
         final Deque<UIComponentId> stack = three.getAncestryStack();
 
         assertThat(stack, hasSize(2));
@@ -46,10 +43,8 @@ public class UIComponentIdTest {
     @Test
     public void testCanonicalId() {
         final UIComponentId one = new UIComponentId("id0");
-        final UIComponentId two = new UIComponentId("id1");
-        two.setParentId(one);
-        final UIComponentId three = new UIComponentId("id2");
-        three.setParentId(two);
+        final UIComponentId two = new UIComponentId(one, "id1", false);
+        final UIComponentId three = new UIComponentId(two, "id2", false);
         final String canonicalId = three.getCanonicalId();
         final String expected = "id0:id1:id2";
 
@@ -88,4 +83,23 @@ public class UIComponentIdTest {
         final UIComponentId child = new UIComponentId(parent, "id910", true);
     }
 
+    @Test
+    public void testFromCanonicalIdIsInterned() {
+        final UIComponentId componentId = fromCanonicalId(":id0:id1:id2");
+
+        assertThat(fromCanonicalId(":id0:id1:id2"), is(sameInstance(componentId)));
+        assertThat(fromCanonicalId(":id0:id1"), is(sameInstance(componentId.getParentId())));
+        assertThat(UIComponentId.of(componentId.getParentId(), "id2", true), is(sameInstance(componentId)));
+    }
+
+    @Test
+    public void testEqualIdsFromDistinctInstances() {
+        final UIComponentId componentId = new UIComponentId(new UIComponentId(null, "id0", true), "id1", true);
+
+        assertThat(componentId, is(fromCanonicalId(":id0:id1")));
+        assertThat(componentId.hashCode(), is(fromCanonicalId(":id0:id1").hashCode()));
+        assertThat(componentId.getDepth(), is(1));
+        assertThat(componentId.equals(fromCanonicalId("id0:id1")), is(false));
+    }
+
 }